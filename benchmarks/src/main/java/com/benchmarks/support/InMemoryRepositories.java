@@ -0,0 +1,160 @@
+package com.benchmarks.support;
+
+import com.order.model.Order;
+import com.order.model.OrderStatus;
+import com.order.repository.OrderRepository;
+import com.payments.model.OutboxEvent;
+import com.payments.model.Payment;
+import com.payments.model.PaymentStatus;
+import com.payments.repository.OutboxEventRepository;
+import com.payments.repository.PaymentRepository;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Map-backed stand-ins for the Spring Data repositories so the service code can be
+ * benchmarked without a database. Only the methods the hot paths call are implemented;
+ * anything else fails fast so a benchmark never silently measures a no-op.
+ */
+public final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    public static PaymentRepository payments() {
+        Map<Long, Payment> byId = new ConcurrentHashMap<>();
+        Map<String, Payment> byOrderId = new ConcurrentHashMap<>();
+        AtomicLong sequence = new AtomicLong();
+
+        Map<String, Function<Object[], Object>> methods = new HashMap<>();
+        methods.put("save/1", args -> {
+            Payment payment = (Payment) args[0];
+            if (payment.getPaymentId() == null) {
+                payment.setPaymentId(sequence.incrementAndGet());
+            }
+            byId.put(payment.getPaymentId(), payment);
+            byOrderId.put(payment.getOrderId(), payment);
+            return payment;
+        });
+        methods.put("findById/1", args -> Optional.ofNullable(byId.get((Long) args[0])));
+        methods.put("findByOrderId/1", args -> Optional.ofNullable(byOrderId.get((String) args[0])));
+        methods.put("findByRazorpayOrderId/1", args -> byId.values().stream()
+                .filter(p -> args[0].equals(p.getRazorpayOrderId()))
+                .findFirst());
+        methods.put("findByOrderIdIn/1", args -> ((Collection<?>) args[0]).stream()
+                .map(byOrderId::get)
+                .filter(Objects::nonNull)
+                .toList());
+        methods.put("transition/4", args -> {
+            Payment payment = byId.get((Long) args[0]);
+            if (payment == null || !((Collection<?>) args[1]).contains(payment.getStatus())) {
+                return 0;
+            }
+            payment.setStatus((PaymentStatus) args[2]);
+            payment.setTimestamp((LocalDateTime) args[3]);
+            return 1;
+        });
+        methods.put("recordVerification/6", args -> {
+            Payment payment = byId.get((Long) args[0]);
+            if (payment == null || !((Collection<?>) args[1]).contains(payment.getStatus())) {
+                return 0;
+            }
+            payment.setStatus((PaymentStatus) args[2]);
+            payment.setRazorpayPaymentId((String) args[3]);
+            payment.setRazorpaySignature((String) args[4]);
+            payment.setTimestamp((LocalDateTime) args[5]);
+            return 1;
+        });
+        methods.put("findAll/0", args -> new ArrayList<>(byId.values()));
+        methods.put("count/0", args -> (long) byId.size());
+        return proxy(PaymentRepository.class, methods);
+    }
+
+    /**
+     * Outbox stand-in that assigns ids and counts appends without retaining rows, so long
+     * benchmark runs do not grow the heap.
+     */
+    public static OutboxEventRepository outbox() {
+        AtomicLong sequence = new AtomicLong();
+
+        Map<String, Function<Object[], Object>> methods = new HashMap<>();
+        methods.put("save/1", args -> {
+            OutboxEvent event = (OutboxEvent) args[0];
+            event.setId(sequence.incrementAndGet());
+            return event;
+        });
+        methods.put("count/0", args -> sequence.get());
+        return proxy(OutboxEventRepository.class, methods);
+    }
+
+    public static OrderRepository orders() {
+        Map<String, Order> byId = new ConcurrentHashMap<>();
+
+        Map<String, Function<Object[], Object>> methods = new HashMap<>();
+        methods.put("save/1", args -> {
+            Order order = (Order) args[0];
+            byId.put(order.getOrderId(), order);
+            return order;
+        });
+        methods.put("findById/1", args -> Optional.ofNullable(byId.get((String) args[0])));
+        methods.put("findAllById/1", args -> {
+            List<Order> found = new ArrayList<>();
+            for (Object id : (Iterable<?>) args[0]) {
+                Order order = byId.get((String) id);
+                if (order != null) {
+                    found.add(order);
+                }
+            }
+            return found;
+        });
+        methods.put("updateStatuses/1", args -> {
+            @SuppressWarnings("unchecked")
+            Map<String, String> statusByOrderId = (Map<String, String>) args[0];
+            int updated = 0;
+            for (Map.Entry<String, String> change : statusByOrderId.entrySet()) {
+                Order order = byId.get(change.getKey());
+                if (order != null && OrderStatus.canTransition(order.getStatus(), change.getValue())) {
+                    order.setStatus(change.getValue());
+                    updated++;
+                }
+            }
+            return updated;
+        });
+        methods.put("findAll/0", args -> new ArrayList<>(byId.values()));
+        methods.put("count/0", args -> (long) byId.size());
+        return proxy(OrderRepository.class, methods);
+    }
+
+    private static <R> R proxy(Class<R> type, Map<String, Function<Object[], Object>> methods) {
+        Object instance = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            Object[] arguments = args == null ? new Object[0] : args;
+            switch (method.getName()) {
+                case "toString":
+                    return "InMemory" + type.getSimpleName();
+                case "hashCode":
+                    return System.identityHashCode(self);
+                case "equals":
+                    return self == arguments[0];
+                default:
+                    break;
+            }
+            Function<Object[], Object> implementation = methods.get(method.getName() + "/" + arguments.length);
+            if (implementation == null) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName() + " is not stubbed");
+            }
+            return implementation.apply(arguments);
+        });
+        return type.cast(instance);
+    }
+}
@@ -0,0 +1,49 @@
+package com.benchmarks.support;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link KafkaTemplate} that never touches a broker: sends complete immediately and only
+ * the record count and last payload are kept, so the benchmark measures serialization
+ * rather than network I/O.
+ */
+public class RecordingKafkaTemplate extends KafkaTemplate<String, byte[]> {
+
+    private final AtomicLong sent = new AtomicLong();
+    private volatile byte[] lastPayload;
+
+    public RecordingKafkaTemplate() {
+        super(new DefaultKafkaProducerFactory<>(Map.of()));
+    }
+
+    @Override
+    public CompletableFuture<SendResult<String, byte[]>> send(String topic, String key, byte[] data) {
+        return record(data);
+    }
+
+    @Override
+    public CompletableFuture<SendResult<String, byte[]>> send(ProducerRecord<String, byte[]> record) {
+        return record(record.value());
+    }
+
+    private CompletableFuture<SendResult<String, byte[]>> record(byte[] data) {
+        sent.incrementAndGet();
+        lastPayload = data;
+        return CompletableFuture.completedFuture(null);
+    }
+
+    public long getSent() {
+        return sent.get();
+    }
+
+    public byte[] getLastPayload() {
+        return lastPayload;
+    }
+}
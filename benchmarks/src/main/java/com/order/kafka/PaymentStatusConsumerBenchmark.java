@@ -0,0 +1,129 @@
+package com.order.kafka;
+
+import com.benchmarks.support.InMemoryRepositories;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.order.cache.OrderCache;
+import com.order.config.OrderCacheProperties;
+import com.order.events.PaymentStatusEvent;
+import com.order.events.PaymentStatusEventCodec;
+import com.order.events.PaymentStatusEventDeserializer;
+import com.order.model.Order;
+import com.order.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.propagation.Propagator;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentStatusConsumerBenchmark {
+
+    private static final int ORDERS = 100;
+
+    /** Records per poll; each order receives batchSize / ORDERS events so dedupe is exercised. */
+    @Param({"1", "500"})
+    private int batchSize;
+
+    private OrderRepository orderRepository;
+    private OrderCache orderCache;
+    private PaymentStatusConsumer consumer;
+    private PaymentStatusEventDeserializer deserializer;
+    private byte[] jsonPayload;
+    private byte[] binaryPayload;
+    private RecordHeaders jsonHeaders;
+    private RecordHeaders binaryHeaders;
+    private List<ConsumerRecord<String, PaymentStatusEvent>> batch;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        orderRepository = InMemoryRepositories.orders();
+        for (int i = 0; i < ORDERS; i++) {
+            orderRepository.save(new Order(orderId(i), "Bench Customer", 49900L, "Pending"));
+        }
+        orderCache = new OrderCache(orderRepository, new OrderCacheProperties());
+        for (int i = 0; i < ORDERS; i++) {
+            orderCache.findById(orderId(i));
+        }
+        consumer = new PaymentStatusConsumer(orderRepository, orderCache, new SimpleMeterRegistry(),
+                Propagator.NOOP);
+        deserializer = new PaymentStatusEventDeserializer();
+
+        long now = System.currentTimeMillis();
+        PaymentStatusEvent sample = event(orderId(0), "SUCCESS", now);
+        jsonPayload = new ObjectMapper().writeValueAsBytes(sample);
+        binaryPayload = PaymentStatusEventCodec.encode(sample);
+        jsonHeaders = headers(PaymentStatusEventCodec.JSON_CONTENT_TYPE);
+        binaryHeaders = headers(PaymentStatusEventCodec.BINARY_CONTENT_TYPE);
+
+        batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            // even orders end Payment Failed, odd ones Confirmed
+            PaymentStatusEvent event = event(orderId(i % ORDERS), i % 2 == 0 ? "FAILED" : "SUCCESS", now + i);
+            batch.add(new ConsumerRecord<>("payment-status", 0, i, event.getOrderId(), event));
+        }
+    }
+
+    @Benchmark
+    public PaymentStatusEvent parseJson() {
+        return deserializer.deserialize("payment-status", jsonHeaders, jsonPayload);
+    }
+
+    @Benchmark
+    public PaymentStatusEvent parseBinary() {
+        return deserializer.deserialize("payment-status", binaryHeaders, binaryPayload);
+    }
+
+    @Benchmark
+    public String consume() {
+        consumer.consume(batch);
+        return orderRepository.findById(orderId(0)).map(Order::getStatus).orElse(null);
+    }
+
+    @Benchmark
+    public String refreshCache() {
+        consumer.refreshCache(batch);
+        return orderCache.findById(orderId(0)).map(Order::getStatus).orElse(null);
+    }
+
+    private static String orderId(int i) {
+        return "ORD-BENCH-" + i;
+    }
+
+    private static PaymentStatusEvent event(String orderId, String status, long timestamp) {
+        PaymentStatusEvent event = new PaymentStatusEvent();
+        event.setOrderId(orderId);
+        event.setPaymentId("pay_Bench000000001");
+        event.setRazorpayOrderId("order_Bench000000001");
+        event.setStatus(status);
+        event.setReason("Payment signature verified");
+        event.setTimestamp(timestamp);
+        return event;
+    }
+
+    private static RecordHeaders headers(String contentType) {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(PaymentStatusEventCodec.CONTENT_TYPE_HEADER, contentType.getBytes(StandardCharsets.UTF_8));
+        return headers;
+    }
+}
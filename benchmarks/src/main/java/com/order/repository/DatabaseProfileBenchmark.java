@@ -0,0 +1,139 @@
+package com.order.repository;
+
+import com.order.model.OrderStatus;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test for the order service's prod database profile (application-prod.yaml) against a real
+ * MySQL. Each benchmark runs once over a pool with the default profile's settings (Hikari and
+ * driver defaults) and once over the pool application-prod.yaml configures:
+ * <ul>
+ *   <li>{@code statusBatch}: the Kafka consumer's conditional status write of 500 orders
+ *       ({@link OrderRepositoryImpl#updateStatuses}), where rewriteBatchedStatements matters;</li>
+ *   <li>{@code pageRead}: keyset page reads from 32 threads, where pool size and the prepared
+ *       statement cache matter.</li>
+ * </ul>
+ * Needs a database with the order schema (start the order service against it once) and writes
+ * only ORD-LOAD-* rows, which it removes afterwards:
+ * <pre>
+ * java -Djdbc.url=jdbc:mysql://localhost:3306/order_db -Djdbc.user=root -Djdbc.password=root \
+ *      -jar target/benchmarks.jar DatabaseProfile
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DatabaseProfileBenchmark {
+
+    private static final String ID_PREFIX = "ORD-LOAD-";
+    private static final int ORDERS = 500;
+
+    @Param({"default", "prod"})
+    private String profile;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private OrderRepositoryImpl repository;
+    private Map<String, String> confirmAll;
+
+    @Setup
+    public void setUp() throws IOException {
+        HikariConfig config = "prod".equals(profile) ? prodProfile() : new HikariConfig();
+        config.setJdbcUrl(System.getProperty("jdbc.url", "jdbc:mysql://localhost:3306/order_db"));
+        config.setUsername(System.getProperty("jdbc.user", "root"));
+        config.setPassword(System.getProperty("jdbc.password", "root"));
+        dataSource = new HikariDataSource(config);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        repository = new OrderRepositoryImpl(jdbcTemplate);
+
+        deleteLoadRows();
+        List<Object[]> rows = new ArrayList<>(ORDERS);
+        confirmAll = new LinkedHashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ORDERS; i++) {
+            String orderId = ID_PREFIX + i;
+            rows.add(new Object[]{orderId, "Load Test", 49900L, OrderStatus.PENDING, Timestamp.valueOf(now.minusSeconds(i))});
+            confirmAll.put(orderId, OrderStatus.CONFIRMED);
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO orders (order_id, customer_name, total_amount_minor, status, created_at) VALUES (?, ?, ?, ?, ?)",
+                rows);
+    }
+
+    @TearDown
+    public void tearDown() {
+        deleteLoadRows();
+        dataSource.close();
+    }
+
+    /** Puts the load rows back to Pending before every write so each one changes 500 rows. */
+    @State(Scope.Thread)
+    public static class PendingOrders {
+
+        @Setup(Level.Invocation)
+        public void reset(DatabaseProfileBenchmark benchmark) {
+            benchmark.jdbcTemplate.update("UPDATE orders SET status = ? WHERE order_id LIKE ?",
+                    OrderStatus.PENDING, ID_PREFIX + "%");
+        }
+    }
+
+    @Benchmark
+    public int statusBatch(PendingOrders pending) {
+        return repository.updateStatuses(confirmAll);
+    }
+
+    @Benchmark
+    @Threads(32)
+    public int pageRead() {
+        return repository.findPage(null, null, null, null, 100).size();
+    }
+
+    private void deleteLoadRows() {
+        jdbcTemplate.update("DELETE FROM orders WHERE order_id LIKE ?", ID_PREFIX + "%");
+    }
+
+    /** The order service's application-prod.yaml, bound the way Spring Boot binds it. */
+    private static HikariConfig prodProfile() throws IOException {
+        Path file = Path.of(System.getProperty("order.resources", "../order/src/main/resources"), "application-prod.yaml");
+        StandardEnvironment environment = new StandardEnvironment();
+        for (PropertySource<?> source : new YamlPropertySourceLoader()
+                .load("application-prod", new FileSystemResource(file))) {
+            environment.getPropertySources().addFirst(source);
+        }
+        return Binder.get(environment).bind("spring.datasource.hikari", HikariConfig.class).get();
+    }
+}
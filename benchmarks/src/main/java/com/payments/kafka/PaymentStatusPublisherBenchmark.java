@@ -0,0 +1,80 @@
+package com.payments.kafka;
+
+import com.benchmarks.support.InMemoryRepositories;
+import com.benchmarks.support.RecordingKafkaTemplate;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payments.config.PublisherProperties;
+import com.payments.events.PaymentStatusEvent;
+import com.payments.events.PaymentStatusEventCodec;
+import com.payments.model.OutboxEvent;
+import com.payments.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentStatusPublisherBenchmark {
+
+    @Param({"binary", "json"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+    private RecordingKafkaTemplate kafkaTemplate;
+    private OutboxEventRepository outbox;
+    private PaymentStatusPublisher publisher;
+    private PaymentStatusEvent event;
+    private OutboxEvent outboxEvent;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = new ObjectMapper();
+        kafkaTemplate = new RecordingKafkaTemplate();
+        outbox = InMemoryRepositories.outbox();
+        publisher = new PaymentStatusPublisher(kafkaTemplate, objectMapper, outbox,
+                new PublisherProperties(), new SimpleMeterRegistry(), Tracer.NOOP, Propagator.NOOP,
+                "payment-status", format);
+        event = new PaymentStatusEvent("ORD-BENCH-1", "pay_Bench000000001", "order_Bench000000001",
+                "SUCCESS", "Payment signature verified", System.currentTimeMillis());
+        outboxEvent = new OutboxEvent("payment-status", event.getOrderId(),
+                PaymentStatusEventCodec.encode(event), PaymentStatusEventCodec.BINARY_CONTENT_TYPE);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return "json".equals(format) ? objectMapper.writeValueAsBytes(event) : PaymentStatusEventCodec.encode(event);
+    }
+
+    /** Serialization plus the outbox append done on the request thread. */
+    @Benchmark
+    public long publish() {
+        publisher.publish(event);
+        return outbox.count();
+    }
+
+    /** The relay's per-record hand-off to the producer. */
+    @Benchmark
+    public CompletableFuture<SendResult<String, byte[]>> relaySend() {
+        return publisher.send(outboxEvent);
+    }
+}
@@ -0,0 +1,148 @@
+package com.payments.service;
+
+import com.benchmarks.support.InMemoryRepositories;
+import com.benchmarks.support.RecordingKafkaTemplate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payments.cache.PaymentCache;
+import com.payments.config.PaymentCacheProperties;
+import com.payments.config.PublisherProperties;
+import com.payments.config.RazorpayProperties;
+import com.payments.dto.RazorpayVerifyRequest;
+import com.payments.dto.RazorpayVerifyResponse;
+import com.payments.events.PaymentStatusEvent;
+import com.payments.kafka.PaymentStatusPublisher;
+import com.payments.model.Payment;
+import com.payments.model.PaymentStatus;
+import com.payments.razorpay.RazorpayGateway;
+import com.payments.repository.PaymentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentServiceBenchmark {
+
+    private static final String KEY_SECRET = "bench_secret_0123456789";
+    private static final String ORDER_ID = "ORD-BENCH-1";
+    private static final String RAZORPAY_ORDER_ID = "order_Bench000000001";
+    private static final String RAZORPAY_PAYMENT_ID = "pay_Bench000000001";
+    private static final int BATCH_ORDERS = 100;
+
+    private PaymentService paymentService;
+    private RazorpaySignatureVerifier signatureVerifier;
+    private Payment payment;
+    private String validSignature;
+    private RazorpayVerifyRequest validRequest;
+    private RazorpayVerifyRequest tamperedRequest;
+    private List<String> batchOrderIds;
+
+    @Setup
+    public void setUp() {
+        RazorpayProperties properties = new RazorpayProperties();
+        properties.setKeyId("rzp_test_bench");
+        properties.setKeySecret(KEY_SECRET);
+
+        PaymentRepository paymentRepository = InMemoryRepositories.payments();
+        PaymentStatusPublisher publisher = new PaymentStatusPublisher(
+                new RecordingKafkaTemplate(), new ObjectMapper(), InMemoryRepositories.outbox(),
+                new PublisherProperties(), new SimpleMeterRegistry(), Tracer.NOOP, Propagator.NOOP,
+                "payment-status", "binary");
+        signatureVerifier = new RazorpaySignatureVerifier(properties);
+        RazorpayGateway razorpayGateway = (amountInPaise, currency, receipt) -> "order_" + receipt;
+        PaymentCache paymentCache = new PaymentCache(paymentRepository, new PaymentCacheProperties(), new SimpleMeterRegistry());
+        // no TransactionTemplate: only createRazorpayOrder uses one, and it is not measured here
+        paymentService = new PaymentService(paymentRepository, properties, publisher, signatureVerifier,
+                razorpayGateway, paymentCache, null, new SimpleMeterRegistry());
+
+        payment = new Payment(ORDER_ID, 49900L, "UPI");
+        payment.setRazorpayOrderId(RAZORPAY_ORDER_ID);
+        payment.setCurrency("INR");
+        payment.setStatus(PaymentStatus.CREATED);
+        payment.setTimestamp(LocalDateTime.now());
+        paymentRepository.save(payment);
+
+        batchOrderIds = new ArrayList<>(BATCH_ORDERS);
+        for (int i = 0; i < BATCH_ORDERS; i++) {
+            Payment other = new Payment("ORD-BENCH-BATCH-" + i, 49900L, "UPI");
+            other.setStatus(PaymentStatus.SUCCESS);
+            paymentRepository.save(other);
+            batchOrderIds.add(other.getOrderId());
+        }
+
+        validSignature = signatureVerifier.sign(RAZORPAY_ORDER_ID, RAZORPAY_PAYMENT_ID);
+        validRequest = verifyRequest(validSignature);
+        tamperedRequest = verifyRequest("0".repeat(64));
+    }
+
+    // Both verify benchmarks reset the payment to CREATED first so every call makes a real status
+    // transition and publishes, instead of hitting the already-verified path after the first call.
+
+    @Benchmark
+    public RazorpayVerifyResponse verifyValidSignature() {
+        payment.setStatus(PaymentStatus.CREATED);
+        return paymentService.verifyRazorpayPayment(validRequest);
+    }
+
+    @Benchmark
+    public RazorpayVerifyResponse verifyInvalidSignature() {
+        payment.setStatus(PaymentStatus.CREATED);
+        return paymentService.verifyRazorpayPayment(tamperedRequest);
+    }
+
+    @Benchmark
+    public boolean verifySignature() {
+        return signatureVerifier.verify(RAZORPAY_ORDER_ID, RAZORPAY_PAYMENT_ID, validSignature);
+    }
+
+    @Benchmark
+    public String signHex() {
+        return signatureVerifier.sign(RAZORPAY_ORDER_ID, RAZORPAY_PAYMENT_ID);
+    }
+
+    /** Status polling path; served from the payment cache after the first call. */
+    @Benchmark
+    public Optional<Payment> getPaymentByOrderId() {
+        return paymentService.getPaymentByOrderId(ORDER_ID);
+    }
+
+    @Benchmark
+    public Map<String, Payment> getPaymentsByOrderIds() {
+        return paymentService.getPaymentsByOrderIds(batchOrderIds);
+    }
+
+    @Benchmark
+    public PaymentStatusEvent toEvent() {
+        return paymentService.toEvent(payment, "SUCCESS", "Payment signature verified");
+    }
+
+    private static RazorpayVerifyRequest verifyRequest(String signature) {
+        RazorpayVerifyRequest request = new RazorpayVerifyRequest();
+        request.setOrderId(ORDER_ID);
+        request.setRazorpayOrderId(RAZORPAY_ORDER_ID);
+        request.setRazorpayPaymentId(RAZORPAY_PAYMENT_ID);
+        request.setRazorpaySignature(signature);
+        return request;
+    }
+}
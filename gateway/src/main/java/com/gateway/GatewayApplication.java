@@ -1,13 +1,16 @@
 package com.gateway;
 
+import com.gateway.loadbalancer.LatencyAwareLoadBalancerConfiguration;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
 import org.springframework.context.annotation.Bean;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.reactive.CorsWebFilter;
 import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
 
 @SpringBootApplication
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
 public class GatewayApplication {
 
 	public static void main(String[] args) {
@@ -20,6 +23,12 @@ public class GatewayApplication {
 		config.addAllowedOrigin("http://localhost:3000");
 		config.addAllowedMethod("*");
 		config.addAllowedHeader("*");
+		config.addExposedHeader("X-Next-Cursor");
+		config.addExposedHeader("Idempotent-Replayed");
+		config.addExposedHeader("Retry-After");
+		config.addExposedHeader("X-RateLimit-Remaining");
+		config.addExposedHeader("ETag");
+		config.addExposedHeader("X-Cache");
 		config.setAllowCredentials(true);
 
 		UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,128 @@
+package com.gateway.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * {@code AdmissionControl} route filter: caps the requests a route may have in flight to its
+ * backend. A request over the cap is answered {@code 429} with {@code Retry-After} at once instead
+ * of queueing behind requests the backend is already struggling with, so a traffic spike sheds the
+ * excess while the admitted requests still finish within their timeouts. Set {@code maxConcurrent}
+ * a little below what the backend instances can serve together, e.g. their combined DB pool size.
+ * Routes are rebuilt on every refresh; a route keeps its permits across rebuilds, so requests
+ * admitted before a refresh still count against the limit after it.
+ */
+@Component
+public class AdmissionControlGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<AdmissionControlGatewayFilterFactory.Config> {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RoutePermits> permitsByRoute = new ConcurrentHashMap<>();
+
+    public AdmissionControlGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("maxConcurrent", "retryAfter");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String route = config.getRouteId() == null ? "unknown" : config.getRouteId();
+        RoutePermits permits = permitsByRoute.computeIfAbsent(route, key -> {
+            RoutePermits created = new RoutePermits(config.getMaxConcurrent());
+            Gauge.builder("gateway.admission.in-flight", created, RoutePermits::inFlight)
+                    .description("Requests admitted to the route and not yet completed")
+                    .tag("route", key)
+                    .register(meterRegistry);
+            return created;
+        });
+        permits.resize(config.getMaxConcurrent());
+        Counter rejected = Counter.builder("gateway.admission.rejected")
+                .description("Requests turned away because the route was at its concurrency limit")
+                .tag("route", route)
+                .register(meterRegistry);
+
+        return (exchange, chain) -> {
+            if (!permits.tryAcquire()) {
+                rejected.increment();
+                exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(config.getRetryAfter()));
+                return exchange.getResponse().setComplete();
+            }
+            return chain.filter(exchange).doFinally(signal -> permits.release());
+        };
+    }
+
+    /** A route's permits; resized in place when a refresh changes {@code maxConcurrent}. */
+    private static final class RoutePermits extends Semaphore {
+        private int limit;
+
+        private RoutePermits(int limit) {
+            super(limit);
+            this.limit = limit;
+        }
+
+        private synchronized void resize(int newLimit) {
+            if (newLimit > limit) {
+                release(newLimit - limit);
+            } else if (newLimit < limit) {
+                // may go negative while more requests are in flight than the new limit allows
+                reducePermits(limit - newLimit);
+            }
+            limit = newLimit;
+        }
+
+        private synchronized int inFlight() {
+            return limit - availablePermits();
+        }
+    }
+
+    public static class Config implements HasRouteId {
+        private int maxConcurrent = 100;
+        // Seconds a rejected client is asked to wait.
+        private int retryAfter = 1;
+        private String routeId;
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public int getRetryAfter() {
+            return retryAfter;
+        }
+
+        public void setRetryAfter(int retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.gateway.cache;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Drops an order's cached responses when a payment-status event for it is published. payment keys
+ * every event by orderId, so only the record key is read and the payload, JSON or binary, is never
+ * decoded. Like order's cache feed, each gateway instance consumes with a group of its own so every
+ * instance sees every event.
+ */
+@Component
+public class PaymentStatusInvalidator {
+
+    private final ResponseCache responseCache;
+
+    public PaymentStatusInvalidator(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @KafkaListener(
+            id = "gateway-response-cache",
+            topics = "${app.response-cache.payment-status-topic}",
+            groupId = "${app.response-cache.invalidation-group}",
+            batch = "true",
+            properties = "auto.offset.reset=latest"
+    )
+    public void invalidate(List<ConsumerRecord<String, byte[]>> records) {
+        Set<String> orderIds = new LinkedHashSet<>();
+        for (ConsumerRecord<String, byte[]> record : records) {
+            if (record.key() != null && !record.key().isBlank()) {
+                orderIds.add(record.key());
+            }
+        }
+        for (String orderId : orderIds) {
+            responseCache.invalidate(orderId, "payment-status");
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.gateway.cache;
+
+import com.gateway.config.ResponseCacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Responses cached by the {@code ResponseCache} route filter, keyed by the path pattern that
+ * matched and the order id in the path. An order's entries are dropped by {@link #invalidate} when
+ * a payment-status event for it arrives or a write to it passes through the gateway; each entry's
+ * TTL covers changes the gateway does not see, such as order's cancellation sweep.
+ */
+@Component
+public class ResponseCache {
+
+    // Longer than any route's response timeout, so an invalidation outlives the requests it races.
+    private static final Duration INVALIDATION_MEMORY = Duration.ofMinutes(1);
+
+    private final Cache<String, CachedResponse> responses;
+    private final Cache<String, Long> invalidatedAt;
+    private final Set<String> patterns = new CopyOnWriteArraySet<>();
+    private final long graceNanos;
+    private final MeterRegistry meterRegistry;
+
+    public ResponseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfter(Expiry.writing((String key, CachedResponse response) -> response.ttl()))
+                .build();
+        this.invalidatedAt = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(INVALIDATION_MEMORY.plus(properties.getInvalidationGrace()))
+                .build();
+        this.graceNanos = properties.getInvalidationGrace().toNanos();
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("gateway.response-cache.size", responses, Cache::estimatedSize)
+                .description("Responses held in the gateway response cache")
+                .register(meterRegistry);
+    }
+
+    /** Makes {@link #invalidate} drop entries cached under this path pattern. */
+    void register(String pattern) {
+        patterns.add(pattern);
+    }
+
+    CachedResponse get(String pattern, String orderId) {
+        return responses.getIfPresent(key(pattern, orderId));
+    }
+
+    /**
+     * Caches a response fetched by a request that started at {@code requestedAt}
+     * ({@link System#nanoTime()}), unless the order was invalidated after, or shortly before, that.
+     */
+    void put(String pattern, String orderId, CachedResponse response, long requestedAt) {
+        String key = key(pattern, orderId);
+        responses.put(key, response);
+        // checked after the put: an invalidation either sees this entry or is seen here
+        Long invalidated = invalidatedAt.getIfPresent(orderId);
+        if (invalidated != null && invalidated - (requestedAt - graceNanos) >= 0) {
+            responses.invalidate(key);
+        }
+    }
+
+    /**
+     * Drops every cached response for the order. {@code source} tags the invalidation counter.
+     */
+    public void invalidate(String orderId, String source) {
+        invalidatedAt.put(orderId, System.nanoTime());
+        for (String pattern : patterns) {
+            responses.invalidate(key(pattern, orderId));
+        }
+        meterRegistry.counter("gateway.response-cache.invalidations", "source", source).increment();
+    }
+
+    private static String key(String pattern, String orderId) {
+        return pattern + " " + orderId;
+    }
+
+    record CachedResponse(MediaType contentType, byte[] body, String etag, Duration ttl) {
+    }
+}
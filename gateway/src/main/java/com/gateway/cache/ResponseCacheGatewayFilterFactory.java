@@ -0,0 +1,248 @@
+package com.gateway.cache;
+
+import com.gateway.cache.ResponseCache.CachedResponse;
+import com.gateway.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code ResponseCache} route filter: answers {@code GET}s on the configured {@code paths} from
+ * {@link ResponseCache} for up to {@code ttl}. Each path is a pattern with an {@code {orderId}}
+ * variable, which is what invalidation is keyed by. Responses carry an {@code ETag} and
+ * {@code Cache-Control: no-cache}, so a polling client revalidates with {@code If-None-Match} and
+ * gets a bodyless {@code 304} while nothing changed. Only {@code 200}s to requests without a query
+ * string are cached. Any other method on a path under a cached one (e.g.
+ * {@code POST /order/api/orders/{orderId}/cancel}) invalidates the order once it completes.
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    private static final String X_CACHE = "X-Cache";
+
+    private final ResponseCache responseCache;
+    private final ResponseCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public ResponseCacheGatewayFilterFactory(ResponseCache responseCache, ResponseCacheProperties properties,
+                                             MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.responseCache = responseCache;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        List<PathPattern> reads = new ArrayList<>();
+        List<PathPattern> writes = new ArrayList<>();
+        for (String path : config.getPaths()) {
+            if (!path.contains("{orderId}")) {
+                throw new IllegalArgumentException("ResponseCache path needs an {orderId} variable: " + path);
+            }
+            reads.add(PathPatternParser.defaultInstance.parse(path));
+            writes.add(PathPatternParser.defaultInstance.parse(path + "/**"));
+            responseCache.register(path);
+        }
+        String route = config.getRouteId() == null ? "unknown" : config.getRouteId();
+        Counter hits = requests(route, "hit");
+        Counter misses = requests(route, "miss");
+        Counter notModified = Counter.builder("gateway.response-cache.not-modified")
+                .description("Requests answered 304 because If-None-Match matched the current ETag")
+                .tag("route", route)
+                .register(meterRegistry);
+
+        return (exchange, chain) -> {
+            if (!properties.isEnabled()) {
+                return chain.filter(exchange);
+            }
+            ServerHttpRequest request = exchange.getRequest();
+            PathContainer path = request.getPath().pathWithinApplication();
+            if (!HttpMethod.GET.equals(request.getMethod())) {
+                Match written = match(writes, path);
+                if (written == null) {
+                    return chain.filter(exchange);
+                }
+                return chain.filter(exchange)
+                        .doFinally(signal -> responseCache.invalidate(written.orderId(), "write"));
+            }
+            Match read = match(reads, path);
+            if (read == null || !request.getQueryParams().isEmpty()) {
+                return chain.filter(exchange);
+            }
+            CachedResponse cached = responseCache.get(read.pattern(), read.orderId());
+            if (cached != null) {
+                hits.increment();
+                return respond(exchange, cached, notModified);
+            }
+            misses.increment();
+            CachingResponse response = new CachingResponse(exchange, read, config.getTtl(), notModified);
+            return chain.filter(exchange.mutate().response(response).build());
+        };
+    }
+
+    private Counter requests(String route, String result) {
+        return Counter.builder("gateway.response-cache.requests")
+                .description("Cacheable GET requests by whether the gateway had the response")
+                .tag("route", route)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Match match(List<PathPattern> patterns, PathContainer path) {
+        for (PathPattern pattern : patterns) {
+            PathPattern.PathMatchInfo info = pattern.matchAndExtract(path);
+            if (info != null) {
+                return new Match(pattern.getPatternString(), info.getUriVariables().get("orderId"));
+            }
+        }
+        return null;
+    }
+
+    private static Mono<Void> respond(ServerWebExchange exchange, CachedResponse cached, Counter notModified) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.setETag(cached.etag());
+        headers.setCacheControl(CacheControl.noCache());
+        headers.set(X_CACHE, "HIT");
+        if (matches(exchange.getRequest(), cached.etag())) {
+            notModified.increment();
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        headers.setContentType(cached.contentType());
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    /** Weak comparison, as RFC 9110 asks of If-None-Match. */
+    private static boolean matches(ServerHttpRequest request, String etag) {
+        List<String> candidates;
+        try {
+            candidates = request.getHeaders().getIfNoneMatch();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        for (String candidate : candidates) {
+            if ("*".equals(candidate) || etag.equals(candidate.startsWith("W/") ? candidate.substring(2) : candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String etag(byte[] body) {
+        return "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+    }
+
+    private record Match(String pattern, String orderId) {
+    }
+
+    /**
+     * Reads the backend's {@code 200} body once, tags it with an ETag, caches it and either passes
+     * it on or, when the client already holds it, turns the response into a {@code 304}.
+     */
+    private final class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerHttpRequest request;
+        private final Match read;
+        private final Duration ttl;
+        private final Counter notModified;
+        private final long requestedAt = System.nanoTime();
+
+        private CachingResponse(ServerWebExchange exchange, Match read, Duration ttl, Counter notModified) {
+            super(exchange.getResponse());
+            this.request = exchange.getRequest();
+            this.read = read;
+            this.ttl = ttl;
+            this.notModified = notModified;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!HttpStatus.OK.equals(getStatusCode())) {
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(body).flatMap(joined -> {
+                byte[] bytes = new byte[joined.readableByteCount()];
+                joined.read(bytes);
+                DataBufferUtils.release(joined);
+                String etag = etag(bytes);
+                HttpHeaders headers = getHeaders();
+                headers.setETag(etag);
+                headers.setCacheControl(CacheControl.noCache());
+                headers.set(X_CACHE, "MISS");
+                if (bytes.length <= properties.getMaximumBodySize()) {
+                    responseCache.put(read.pattern(), read.orderId(),
+                            new CachedResponse(headers.getContentType(), bytes, etag, ttl), requestedAt);
+                }
+                if (matches(request, etag)) {
+                    notModified.increment();
+                    setStatusCode(HttpStatus.NOT_MODIFIED);
+                    headers.remove(HttpHeaders.CONTENT_LENGTH);
+                    headers.remove(HttpHeaders.TRANSFER_ENCODING);
+                    return setComplete();
+                }
+                return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+            });
+        }
+    }
+
+    public static class Config implements HasRouteId {
+        // Path patterns with an {orderId} variable whose GET responses are cached.
+        private List<String> paths = new ArrayList<>();
+        private Duration ttl = Duration.ofSeconds(5);
+        private String routeId;
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.loadbalancer")
+public class LoadBalancerProperties {
+    // How quickly an instance's latency estimate forgets old samples, and decays while it is idle.
+    private Duration decayTime = Duration.ofSeconds(10);
+    // Latency recorded for a failed call (5xx, timeout, connection error) that failed faster than this.
+    private Duration failurePenalty = Duration.ofSeconds(1);
+
+    public Duration getDecayTime() {
+        return decayTime;
+    }
+
+    public void setDecayTime(Duration decayTime) {
+        this.decayTime = decayTime;
+    }
+
+    public Duration getFailurePenalty() {
+        return failurePenalty;
+    }
+
+    public void setFailurePenalty(Duration failurePenalty) {
+        this.failurePenalty = failurePenalty;
+    }
+}
@@ -0,0 +1,42 @@
+package com.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+    // Proxies in front of the gateway whose X-Forwarded-For entries are trusted; 0 keys on the peer address.
+    private int trustedProxies = 0;
+    // Upper bound on client buckets kept in memory; the least recently used are dropped first.
+    private long maxBuckets = 100_000;
+    // Idle buckets are dropped after this; keep it above burst-capacity / replenish-rate of every route
+    // so a dropped bucket would have been full anyway.
+    private Duration bucketIdleTime = Duration.ofMinutes(1);
+
+    public int getTrustedProxies() {
+        return trustedProxies;
+    }
+
+    public void setTrustedProxies(int trustedProxies) {
+        this.trustedProxies = trustedProxies;
+    }
+
+    public long getMaxBuckets() {
+        return maxBuckets;
+    }
+
+    public void setMaxBuckets(long maxBuckets) {
+        this.maxBuckets = maxBuckets;
+    }
+
+    public Duration getBucketIdleTime() {
+        return bucketIdleTime;
+    }
+
+    public void setBucketIdleTime(Duration bucketIdleTime) {
+        this.bucketIdleTime = bucketIdleTime;
+    }
+}
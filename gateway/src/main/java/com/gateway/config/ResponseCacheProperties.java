@@ -0,0 +1,52 @@
+package com.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.response-cache")
+public class ResponseCacheProperties {
+    // When false the ResponseCache filter passes every request through.
+    private boolean enabled = true;
+    // Upper bound on responses kept in memory; the least recently used are dropped first.
+    private long maximumSize = 10_000;
+    // Larger responses are passed through without being cached.
+    private int maximumBodySize = 64 * 1024;
+    // Responses for an order are not cached for this long after it was invalidated, so the cache does
+    // not pick up a state that order's own payment-status consumer has not applied yet.
+    private Duration invalidationGrace = Duration.ofSeconds(2);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public int getMaximumBodySize() {
+        return maximumBodySize;
+    }
+
+    public void setMaximumBodySize(int maximumBodySize) {
+        this.maximumBodySize = maximumBodySize;
+    }
+
+    public Duration getInvalidationGrace() {
+        return invalidationGrace;
+    }
+
+    public void setInvalidationGrace(Duration invalidationGrace) {
+        this.invalidationGrace = invalidationGrace;
+    }
+}
@@ -0,0 +1,159 @@
+package com.gateway.loadbalancer;
+
+import com.gateway.config.LoadBalancerProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Observed latency and in-flight requests per service instance, fed by {@link InstanceStatsFilter}
+ * and read by {@link LatencyAwareLoadBalancer}.
+ *
+ * <p>Latency is a peak-sensitive moving average. A slower response raises it at once; faster
+ * ones pull it down with a weight that depends on the time since the previous sample. It also
+ * decays towards zero while an instance gets no traffic, so an instance that was slow after a
+ * GC pause or a redeploy is tried again once it has been avoided for a while.
+ */
+@Component
+public class InstanceStats {
+
+    // Latency assumed before the first sample, so a new instance ramps up by in-flight count
+    // instead of receiving every request until its first response arrives.
+    private static final long MIN_LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ConcurrentMap<String, ConcurrentMap<String, Stats>> byService = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final long decayNanos;
+    private final long failurePenaltyNanos;
+
+    public InstanceStats(LoadBalancerProperties properties, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.decayNanos = properties.getDecayTime().toNanos();
+        this.failurePenaltyNanos = properties.getFailurePenalty().toNanos();
+    }
+
+    /**
+     * Expected cost of sending one more request to the instance: its latency estimate times the
+     * requests it would then be serving.
+     */
+    public double cost(ServiceInstance instance) {
+        Stats stats = stats(instance);
+        return Math.max(stats.latencyNanos(System.nanoTime()), MIN_LATENCY_NANOS) * (stats.inFlight.get() + 1);
+    }
+
+    /** Counts a request against the instance until {@link Call#release()}. */
+    public Call start(ServiceInstance instance) {
+        Stats stats = stats(instance);
+        stats.inFlight.incrementAndGet();
+        return new Call(stats, System.nanoTime());
+    }
+
+    /** Drops the stats of instances of the same service that discovery no longer returns. */
+    public void retain(List<ServiceInstance> instances) {
+        ConcurrentMap<String, Stats> known = byService.get(instances.get(0).getServiceId());
+        // instances are only ever added on use, so more entries than instances means some left
+        if (known == null || known.size() <= instances.size()) {
+            return;
+        }
+        Set<String> current = instances.stream().map(InstanceStats::address).collect(Collectors.toSet());
+        for (Map.Entry<String, Stats> entry : known.entrySet()) {
+            if (!current.contains(entry.getKey()) && known.remove(entry.getKey(), entry.getValue())) {
+                entry.getValue().meters.forEach(meterRegistry::remove);
+            }
+        }
+    }
+
+    private Stats stats(ServiceInstance instance) {
+        return byService.computeIfAbsent(instance.getServiceId(), service -> new ConcurrentHashMap<>())
+                .computeIfAbsent(address(instance), address -> register(instance.getServiceId(), address));
+    }
+
+    private Stats register(String serviceId, String address) {
+        Stats stats = new Stats(decayNanos);
+        stats.meters = List.of(
+                TimeGauge.builder("gateway.loadbalancer.latency", stats, TimeUnit.NANOSECONDS,
+                                s -> s.latencyNanos(System.nanoTime()))
+                        .description("Latency estimate the load balancer uses for the instance")
+                        .tags("service", serviceId, "instance", address)
+                        .register(meterRegistry),
+                Gauge.builder("gateway.loadbalancer.in-flight", stats, s -> s.inFlight.get())
+                        .description("Requests the gateway is currently waiting on from the instance")
+                        .tags("service", serviceId, "instance", address)
+                        .register(meterRegistry));
+        return stats;
+    }
+
+    private static String address(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+
+    /** One request to an instance. Both methods are safe to call more than once. */
+    public final class Call {
+
+        private final Stats stats;
+        private final long startNanos;
+        private final AtomicBoolean recorded = new AtomicBoolean();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Call(Stats stats, long startNanos) {
+            this.stats = stats;
+            this.startNanos = startNanos;
+        }
+
+        /** Records the time since the call started; a failure counts as at least the failure penalty. */
+        public void record(boolean failed) {
+            if (recorded.compareAndSet(false, true)) {
+                long now = System.nanoTime();
+                long elapsed = now - startNanos;
+                stats.observe(failed ? Math.max(elapsed, failurePenaltyNanos) : elapsed, now);
+            }
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                stats.inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    private static final class Stats {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final long decayNanos;
+        private double latencyNanos;
+        private long stampNanos = System.nanoTime();
+        private List<Meter> meters = List.of();
+
+        private Stats(long decayNanos) {
+            this.decayNanos = decayNanos;
+        }
+
+        synchronized double latencyNanos(long now) {
+            return latencyNanos * weight(now);
+        }
+
+        synchronized void observe(long sampleNanos, long now) {
+            double weight = weight(now);
+            double decayed = latencyNanos * weight;
+            latencyNanos = sampleNanos > decayed ? sampleNanos : decayed + sampleNanos * (1 - weight);
+            stampNanos = now;
+        }
+
+        private double weight(long now) {
+            return Math.exp(-(double) Math.max(0, now - stampNanos) / decayNanos);
+        }
+    }
+}
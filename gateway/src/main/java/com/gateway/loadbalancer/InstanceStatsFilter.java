@@ -0,0 +1,58 @@
+package com.gateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Feeds {@link InstanceStats} with every call to the instance the load balancer just chose.
+ * Latency is measured to the response headers, not to the end of the body, so a streamed response
+ * does not make its instance look slow. Runs once per attempt when the route retries.
+ */
+@Component
+public class InstanceStatsFilter implements GlobalFilter, Ordered {
+
+    private final InstanceStats instanceStats;
+
+    public InstanceStatsFilter(InstanceStats instanceStats) {
+        this.instanceStats = instanceStats;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Response<ServiceInstance> chosen = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (chosen == null || !chosen.hasServer()) {
+            return chain.filter(exchange);
+        }
+        InstanceStats.Call call = instanceStats.start(chosen.getServer());
+        exchange.getResponse().beforeCommit(() -> {
+            call.record(isServerError(exchange.getResponse().getStatusCode()));
+            return Mono.empty();
+        });
+        return chain.filter(exchange).doFinally(signal -> {
+            // a cancelled call (client went away) says nothing about the instance
+            if (signal != SignalType.CANCEL) {
+                call.record(signal == SignalType.ON_ERROR || isServerError(exchange.getResponse().getStatusCode()));
+            }
+            call.release();
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+    }
+
+    private static boolean isServerError(HttpStatusCode status) {
+        return status != null && status.is5xxServerError();
+    }
+}
@@ -0,0 +1,64 @@
+package com.gateway.loadbalancer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Power-of-two-choices: picks two distinct instances at random and sends the request to the one
+ * with the lower {@link InstanceStats#cost cost}. This steers traffic away from slow or busy
+ * instances without the herding a pure "pick the fastest" rule causes across gateway replicas.
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(LatencyAwareLoadBalancer.class);
+
+    private final ObjectProvider<ServiceInstanceListSupplier> suppliers;
+    private final String serviceId;
+    private final InstanceStats instanceStats;
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> suppliers, String serviceId,
+                                    InstanceStats instanceStats) {
+        this.suppliers = suppliers;
+        this.serviceId = serviceId;
+        this.instanceStats = instanceStats;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = suppliers.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::choose);
+    }
+
+    Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            log.warn("No servers available for service: {}", serviceId);
+            return new EmptyResponse();
+        }
+        instanceStats.retain(instances);
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        return new DefaultResponse(instanceStats.cost(a) <= instanceStats.cost(b) ? a : b);
+    }
+}
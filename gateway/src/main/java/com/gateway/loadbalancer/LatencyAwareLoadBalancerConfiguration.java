@@ -0,0 +1,26 @@
+package com.gateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Default load balancer configuration for every {@code lb://} route, registered through
+ * {@code @LoadBalancerClients} on {@code GatewayApplication}. Deliberately not a
+ * {@code @Configuration}: Spring Cloud LoadBalancer builds it once per service, in that service's
+ * own context, and component scanning must not pick it up for the main context.
+ */
+public class LatencyAwareLoadBalancerConfiguration {
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> latencyAwareLoadBalancer(Environment environment,
+                                                                         LoadBalancerClientFactory clientFactory,
+                                                                         InstanceStats instanceStats) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LatencyAwareLoadBalancer(
+                clientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class), serviceId, instanceStats);
+    }
+}
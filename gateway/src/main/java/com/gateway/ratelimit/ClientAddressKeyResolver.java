@@ -0,0 +1,33 @@
+package com.gateway.ratelimit;
+
+import com.gateway.config.RateLimitProperties;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.support.ipresolver.RemoteAddressResolver;
+import org.springframework.cloud.gateway.support.ipresolver.XForwardedRemoteAddressResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Rate limit key: the client's IP address. X-Forwarded-For is only used for the
+ * {@code app.rate-limit.trusted-proxies} hops closest to the gateway, so a client cannot pick its
+ * own key by sending the header.
+ */
+@Component
+public class ClientAddressKeyResolver implements KeyResolver {
+
+    private final RemoteAddressResolver addressResolver;
+
+    public ClientAddressKeyResolver(RateLimitProperties properties) {
+        this.addressResolver = properties.getTrustedProxies() > 0
+                ? XForwardedRemoteAddressResolver.maxTrustedIndex(properties.getTrustedProxies())
+                : new RemoteAddressResolver() { };
+    }
+
+    @Override
+    public Mono<String> resolve(ServerWebExchange exchange) {
+        return Mono.justOrEmpty(addressResolver.resolve(exchange))
+                .filter(address -> address.getAddress() != null)
+                .map(address -> address.getAddress().getHostAddress());
+    }
+}
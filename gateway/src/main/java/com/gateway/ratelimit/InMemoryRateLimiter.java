@@ -0,0 +1,130 @@
+package com.gateway.ratelimit;
+
+import com.gateway.config.RateLimitProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket per route and client, held in this gateway instance's memory. Each route sets its
+ * own rate through the {@code RequestRateLimiter} filter's {@code in-memory-rate-limiter.*}
+ * arguments, which use the same names as Spring Cloud Gateway's {@code redis-rate-limiter.*}: a
+ * route can switch to the Redis-backed limiter, shared by all gateway instances, by pointing its
+ * {@code rate-limiter} argument at that bean instead. With N gateway instances and this limiter a
+ * client gets up to N times the configured rate.
+ */
+@Component
+public class InMemoryRateLimiter extends AbstractRateLimiter<InMemoryRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "in-memory-rate-limiter";
+
+    private final Cache<String, Bucket> buckets;
+    private final MeterRegistry meterRegistry;
+
+    public InMemoryRateLimiter(ConfigurationService configurationService, RateLimitProperties properties,
+                               MeterRegistry meterRegistry) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(properties.getBucketIdleTime())
+                .build();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().get(routeId);
+        if (config == null) {
+            return Mono.error(new IllegalArgumentException("No " + CONFIGURATION_PROPERTY_NAME
+                    + " configuration found for route " + routeId));
+        }
+        Bucket bucket = buckets.get(routeId + " " + id, key -> new Bucket(config.getBurstCapacity()));
+        long remaining = bucket.tryTake(config, System.nanoTime());
+        boolean allowed = remaining >= 0;
+        Map<String, String> headers = new HashMap<>();
+        headers.put("X-RateLimit-Remaining", String.valueOf(Math.max(remaining, 0)));
+        headers.put("X-RateLimit-Replenish-Rate", String.valueOf(config.getReplenishRate()));
+        headers.put("X-RateLimit-Burst-Capacity", String.valueOf(config.getBurstCapacity()));
+        headers.put("X-RateLimit-Requested-Tokens", String.valueOf(config.getRequestedTokens()));
+        if (!allowed) {
+            headers.put("Retry-After", String.valueOf(bucket.secondsUntil(config)));
+            meterRegistry.counter("gateway.ratelimit.rejected", "route", routeId).increment();
+        }
+        return Mono.just(new Response(allowed, headers));
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        private Bucket(int capacity) {
+            this.tokens = capacity;
+        }
+
+        /** Takes the requested tokens if there are enough; returns the tokens left, or -1 if refused. */
+        synchronized long tryTake(Config config, long now) {
+            refill(config, now);
+            if (tokens < config.getRequestedTokens()) {
+                return -1;
+            }
+            tokens -= config.getRequestedTokens();
+            return (long) tokens;
+        }
+
+        synchronized long secondsUntil(Config config) {
+            double missing = config.getRequestedTokens() - tokens;
+            return Math.max(1, (long) Math.ceil(missing / config.getReplenishRate()));
+        }
+
+        private void refill(Config config, long now) {
+            double elapsedSeconds = (double) (now - refilledAt) / TimeUnit.SECONDS.toNanos(1);
+            tokens = Math.min(config.getBurstCapacity(), tokens + elapsedSeconds * config.getReplenishRate());
+            refilledAt = now;
+        }
+    }
+
+    public static class Config {
+        // Tokens added per second: the sustained requests per second a client may make.
+        private int replenishRate = 1;
+        // Bucket size: the burst a client may make after being idle.
+        private int burstCapacity = 1;
+        // Tokens one request costs.
+        private int requestedTokens = 1;
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public Config setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+            return this;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public Config setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+            return this;
+        }
+
+        public int getRequestedTokens() {
+            return requestedTokens;
+        }
+
+        public Config setRequestedTokens(int requestedTokens) {
+            this.requestedTokens = requestedTokens;
+            return this;
+        }
+    }
+}
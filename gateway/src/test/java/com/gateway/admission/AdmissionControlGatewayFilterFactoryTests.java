@@ -0,0 +1,76 @@
+package com.gateway.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AdmissionControlGatewayFilterFactoryTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void rejectsRequestsOverTheLimitUntilOneCompletes() {
+		AdmissionControlGatewayFilterFactory.Config config = new AdmissionControlGatewayFilterFactory.Config();
+		config.setMaxConcurrent(1);
+		config.setRouteId("payments-route");
+		GatewayFilter filter = new AdmissionControlGatewayFilterFactory(meterRegistry).apply(config);
+		Sinks.Empty<Void> backend = Sinks.empty();
+
+		MockServerWebExchange first = exchange();
+		Disposable inFlight = filter.filter(first, exchange -> backend.asMono()).subscribe();
+
+		MockServerWebExchange second = exchange();
+		filter.filter(second, exchange -> Mono.empty()).block();
+		assertEquals(HttpStatus.TOO_MANY_REQUESTS, second.getResponse().getStatusCode());
+		assertEquals("1", second.getResponse().getHeaders().getFirst("Retry-After"));
+		assertEquals(1, meterRegistry.get("gateway.admission.rejected").tag("route", "payments-route").counter().count());
+
+		backend.tryEmitEmpty();
+		inFlight.dispose();
+
+		MockServerWebExchange third = exchange();
+		filter.filter(third, exchange -> Mono.empty()).block();
+		assertNull(third.getResponse().getStatusCode());
+	}
+
+	@Test
+	void keepsARoutesPermitsAcrossRebuilds() {
+		AdmissionControlGatewayFilterFactory factory = new AdmissionControlGatewayFilterFactory(meterRegistry);
+		AdmissionControlGatewayFilterFactory.Config config = new AdmissionControlGatewayFilterFactory.Config();
+		config.setMaxConcurrent(1);
+		config.setRouteId("payments-route");
+		GatewayFilter beforeRefresh = factory.apply(config);
+		Sinks.Empty<Void> backend = Sinks.empty();
+		Disposable inFlight = beforeRefresh.filter(exchange(), exchange -> backend.asMono()).subscribe();
+
+		GatewayFilter afterRefresh = factory.apply(config);
+		MockServerWebExchange rejected = exchange();
+		afterRefresh.filter(rejected, exchange -> Mono.empty()).block();
+		assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+		assertEquals(1, meterRegistry.find("gateway.admission.in-flight").gauges().size());
+		assertEquals(1, meterRegistry.get("gateway.admission.in-flight").gauge().value());
+
+		config.setMaxConcurrent(2);
+		GatewayFilter resized = factory.apply(config);
+		MockServerWebExchange admitted = exchange();
+		resized.filter(admitted, exchange -> Mono.empty()).block();
+		assertNull(admitted.getResponse().getStatusCode());
+
+		backend.tryEmitEmpty();
+		inFlight.dispose();
+		assertEquals(0, meterRegistry.get("gateway.admission.in-flight").gauge().value());
+	}
+
+	private static MockServerWebExchange exchange() {
+		return MockServerWebExchange.from(MockServerHttpRequest.post("/payments/api/payments/razorpay/order"));
+	}
+}
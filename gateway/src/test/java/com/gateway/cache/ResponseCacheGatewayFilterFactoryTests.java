@@ -0,0 +1,143 @@
+package com.gateway.cache;
+
+import com.gateway.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class ResponseCacheGatewayFilterFactoryTests {
+
+	private static final String ORDER_PATH = "/order/api/orders/ORD-1";
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final AtomicInteger backendCalls = new AtomicInteger();
+	private ResponseCacheProperties properties;
+	private ResponseCache responseCache;
+	private GatewayFilter filter;
+	private String status = "CREATED";
+
+	@BeforeEach
+	void setUp() {
+		properties = new ResponseCacheProperties();
+		properties.setInvalidationGrace(Duration.ZERO);
+		responseCache = new ResponseCache(properties, meterRegistry);
+		ResponseCacheGatewayFilterFactory.Config config = new ResponseCacheGatewayFilterFactory.Config();
+		config.setPaths(List.of("/order/api/orders/{orderId}"));
+		config.setRouteId("order-route");
+		filter = new ResponseCacheGatewayFilterFactory(responseCache, properties, meterRegistry).apply(config);
+	}
+
+	@Test
+	void servesRepeatedGetsFromTheCache() {
+		MockServerWebExchange first = get(ORDER_PATH);
+		filter.filter(first, backend()).block();
+		MockServerWebExchange second = get(ORDER_PATH);
+		filter.filter(second, backend()).block();
+
+		assertEquals(1, backendCalls.get());
+		assertEquals("MISS", first.getResponse().getHeaders().getFirst("X-Cache"));
+		assertEquals("HIT", second.getResponse().getHeaders().getFirst("X-Cache"));
+		assertEquals(HttpStatus.OK, second.getResponse().getStatusCode());
+		assertEquals("{\"status\":\"CREATED\"}", second.getResponse().getBodyAsString().block());
+		assertEquals(MediaType.APPLICATION_JSON, second.getResponse().getHeaders().getContentType());
+		assertEquals(first.getResponse().getHeaders().getETag(), second.getResponse().getHeaders().getETag());
+		assertEquals(1, requests("hit"));
+		assertEquals(1, requests("miss"));
+	}
+
+	@Test
+	void answersNotModifiedWhenTheClientHasTheCurrentBody() {
+		MockServerWebExchange first = get(ORDER_PATH);
+		filter.filter(first, backend()).block();
+		String etag = first.getResponse().getHeaders().getETag();
+		assertNotNull(etag);
+
+		MockServerWebExchange revalidation = MockServerWebExchange.from(MockServerHttpRequest.get(ORDER_PATH)
+				.header(HttpHeaders.IF_NONE_MATCH, etag));
+		filter.filter(revalidation, backend()).block();
+
+		assertEquals(HttpStatus.NOT_MODIFIED, revalidation.getResponse().getStatusCode());
+		assertEquals("", revalidation.getResponse().getBodyAsString().block());
+		assertEquals(1, backendCalls.get());
+		assertEquals(1, meterRegistry.get("gateway.response-cache.not-modified").counter().count());
+	}
+
+	@Test
+	void paymentStatusEventsAndWritesInvalidateTheOrder() {
+		filter.filter(get(ORDER_PATH), backend()).block();
+		status = "PAID";
+		responseCache.invalidate("ORD-1", "payment-status");
+
+		MockServerWebExchange afterEvent = get(ORDER_PATH);
+		filter.filter(afterEvent, backend()).block();
+		assertEquals("{\"status\":\"PAID\"}", afterEvent.getResponse().getBodyAsString().block());
+
+		status = "CANCELLED";
+		MockServerWebExchange cancel = MockServerWebExchange.from(MockServerHttpRequest.post(ORDER_PATH + "/cancel"));
+		filter.filter(cancel, exchange -> Mono.empty()).block();
+
+		MockServerWebExchange afterWrite = get(ORDER_PATH);
+		filter.filter(afterWrite, backend()).block();
+		assertEquals("{\"status\":\"CANCELLED\"}", afterWrite.getResponse().getBodyAsString().block());
+		assertEquals(3, backendCalls.get());
+	}
+
+	@Test
+	void doesNotCacheAResponseFetchedBeforeAnInvalidation() {
+		GatewayFilterChain slowBackend = exchange -> {
+			responseCache.invalidate("ORD-1", "payment-status");
+			return backend().filter(exchange);
+		};
+		filter.filter(get(ORDER_PATH), slowBackend).block();
+
+		filter.filter(get(ORDER_PATH), backend()).block();
+		assertEquals(2, backendCalls.get());
+	}
+
+	@Test
+	void passesOtherRequestsThrough() {
+		filter.filter(get("/order/api/orders?status=CREATED"), backend()).block();
+		filter.filter(get("/order/api/orders?status=CREATED"), backend()).block();
+		filter.filter(get(ORDER_PATH + "?fields=status"), backend()).block();
+		filter.filter(get(ORDER_PATH + "?fields=status"), backend()).block();
+
+		assertEquals(4, backendCalls.get());
+		assertEquals(0, requests("hit"));
+		assertEquals(0, requests("miss"));
+	}
+
+	private GatewayFilterChain backend() {
+		return (ServerWebExchange exchange) -> {
+			backendCalls.incrementAndGet();
+			byte[] body = ("{\"status\":\"" + status + "\"}").getBytes(StandardCharsets.UTF_8);
+			exchange.getResponse().setStatusCode(HttpStatus.OK);
+			exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+			return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(body)));
+		};
+	}
+
+	private double requests(String result) {
+		return meterRegistry.get("gateway.response-cache.requests").tag("result", result).counter().count();
+	}
+
+	private static MockServerWebExchange get(String path) {
+		return MockServerWebExchange.from(MockServerHttpRequest.get(path));
+	}
+}
@@ -0,0 +1,65 @@
+package com.gateway.loadbalancer;
+
+import com.gateway.config.LoadBalancerProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyAwareLoadBalancerTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final InstanceStats stats = new InstanceStats(new LoadBalancerProperties(), meterRegistry);
+	private final LatencyAwareLoadBalancer loadBalancer = new LatencyAwareLoadBalancer(null, "ORDER", stats);
+	private final ServiceInstance fast = instance("order-1", 8081);
+	private final ServiceInstance slow = instance("order-2", 8082);
+
+	@Test
+	void avoidsAnInstanceThatFailed() {
+		stats.start(fast).record(false);
+		InstanceStats.Call failed = stats.start(slow);
+		failed.record(true);
+		failed.release();
+
+		for (int i = 0; i < 20; i++) {
+			assertEquals(fast, loadBalancer.choose(List.of(fast, slow)).getServer());
+		}
+	}
+
+	@Test
+	void prefersTheInstanceWithFewerRequestsInFlight() {
+		stats.start(slow);
+		stats.start(slow);
+
+		for (int i = 0; i < 20; i++) {
+			assertEquals(fast, loadBalancer.choose(List.of(fast, slow)).getServer());
+		}
+	}
+
+	@Test
+	void forgetsInstancesDiscoveryNoLongerReturns() {
+		stats.start(fast).release();
+		stats.start(slow).release();
+		assertEquals(2, meterRegistry.find("gateway.loadbalancer.in-flight").gauges().size());
+
+		loadBalancer.choose(List.of(fast));
+
+		assertEquals(1, meterRegistry.find("gateway.loadbalancer.in-flight").gauges().size());
+	}
+
+	@Test
+	void answersEmptyWithoutInstances() {
+		assertFalse(loadBalancer.choose(List.of()).hasServer());
+		assertTrue(loadBalancer.choose(List.of(fast)).hasServer());
+	}
+
+	private static ServiceInstance instance(String host, int port) {
+		return new DefaultServiceInstance(host + ":" + port, "ORDER", host, port, false);
+	}
+}
@@ -0,0 +1,53 @@
+package com.gateway.ratelimit;
+
+import com.gateway.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryRateLimiterTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private InMemoryRateLimiter rateLimiter;
+
+	@BeforeEach
+	void setUp() {
+		rateLimiter = new InMemoryRateLimiter(null, new RateLimitProperties(), meterRegistry);
+		rateLimiter.getConfig().put("payments-route", new InMemoryRateLimiter.Config()
+				.setReplenishRate(1)
+				.setBurstCapacity(2));
+		rateLimiter.getConfig().put("order-route", new InMemoryRateLimiter.Config()
+				.setReplenishRate(1)
+				.setBurstCapacity(1));
+	}
+
+	@Test
+	void allowsTheBurstThenRefusesWithRetryAfter() {
+		assertTrue(isAllowed("payments-route", "10.0.0.1").isAllowed());
+		assertTrue(isAllowed("payments-route", "10.0.0.1").isAllowed());
+
+		RateLimiter.Response refused = isAllowed("payments-route", "10.0.0.1");
+		assertFalse(refused.isAllowed());
+		assertEquals("0", refused.getHeaders().get("X-RateLimit-Remaining"));
+		assertEquals("1", refused.getHeaders().get("Retry-After"));
+		assertEquals(1, meterRegistry.get("gateway.ratelimit.rejected").tag("route", "payments-route").counter().count());
+	}
+
+	@Test
+	void keepsOneBucketPerClientAndRoute() {
+		assertTrue(isAllowed("order-route", "10.0.0.1").isAllowed());
+		assertFalse(isAllowed("order-route", "10.0.0.1").isAllowed());
+
+		assertTrue(isAllowed("order-route", "10.0.0.2").isAllowed());
+		assertTrue(isAllowed("payments-route", "10.0.0.1").isAllowed());
+	}
+
+	private RateLimiter.Response isAllowed(String routeId, String client) {
+		return rateLimiter.isAllowed(routeId, client).block();
+	}
+}
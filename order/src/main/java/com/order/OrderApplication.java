@@ -1,12 +1,20 @@
 package com.order;
 
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.util.backoff.ExponentialBackOff;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
 
 @SpringBootApplication
+@EnableScheduling
 public class OrderApplication {
 
 	public static void main(String[] args) {
@@ -15,8 +23,19 @@ public class OrderApplication {
 	
     @Bean
     @LoadBalanced
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestClient.Builder loadBalancedRestClientBuilder(ObservationRegistry observationRegistry) {
+        // observed so calls to payment get a client span and carry the trace headers
+        return RestClient.builder().observationRegistry(observationRegistry);
+    }
+
+    @Bean
+    public DefaultErrorHandler kafkaErrorHandler(@Value("${app.kafka.retry-max-elapsed:15m}") Duration retryMaxElapsed) {
+        // a payment-status batch that failed to apply is retried with backoff rather than committed;
+        // once retries run out the batch is logged and skipped
+        ExponentialBackOff backOff = new ExponentialBackOff(500, 2);
+        backOff.setMaxInterval(30_000);
+        backOff.setMaxElapsedTime(retryMaxElapsed.toMillis());
+        return new DefaultErrorHandler(backOff);
     }
 
 }
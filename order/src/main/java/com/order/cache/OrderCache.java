@@ -0,0 +1,91 @@
+package com.order.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.order.config.OrderCacheProperties;
+import com.order.model.Order;
+import com.order.model.OrderStatus;
+import com.order.repository.OrderRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Bounded read-through cache of orders by id. Entries are detached copies and must be treated as
+ * read-only. It is kept current by local writes ({@link #put(Order)}) and by the payment-status
+ * event feed every instance consumes ({@link #updateStatus(String, String)}); the TTL covers
+ * anything else.
+ */
+@Component
+public class OrderCache {
+
+    private final OrderRepository orderRepository;
+    private final boolean enabled;
+    private final Cache<String, Order> byOrderId;
+
+    public OrderCache(OrderRepository orderRepository, OrderCacheProperties properties) {
+        this.orderRepository = orderRepository;
+        this.enabled = properties.isEnabled();
+        this.byOrderId = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+    }
+
+    public Optional<Order> findById(String orderId) {
+        if (!enabled) {
+            return orderRepository.findById(orderId);
+        }
+        Order cached = byOrderId.getIfPresent(orderId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return orderRepository.findById(orderId).map(this::put);
+    }
+
+    /**
+     * Caches the current state of an order that was just written and returns the cached copy.
+     */
+    public Order put(Order order) {
+        Order snapshot = copyOf(order);
+        if (enabled) {
+            byOrderId.put(snapshot.getOrderId(), snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Applies a status change to the cached entry, if there is one, under the same transition
+     * rules as the database ({@link OrderStatus}). An entry whose status the change is not allowed
+     * from is dropped rather than kept or overwritten, so the next read loads the database state.
+     * Orders that are not cached are left to be loaded on their next read.
+     */
+    public void updateStatus(String orderId, String status) {
+        if (!enabled) {
+            return;
+        }
+        byOrderId.asMap().computeIfPresent(orderId, (id, cached) -> {
+            if (status.equals(cached.getStatus())) {
+                return cached;
+            }
+            if (!OrderStatus.canTransition(cached.getStatus(), status)) {
+                return null;
+            }
+            Order updated = copyOf(cached);
+            updated.setStatus(status);
+            return updated;
+        });
+    }
+
+    public void evict(String orderId) {
+        byOrderId.invalidate(orderId);
+    }
+
+    private static Order copyOf(Order order) {
+        Order copy = new Order(order.getOrderId(), order.getCustomerName(), order.getTotalAmountMinor(), order.getStatus());
+        copy.setCreatedAt(order.getCreatedAt());
+        copy.setCancellationRequestedAt(order.getCancellationRequestedAt());
+        return copy;
+    }
+}
@@ -0,0 +1,100 @@
+package com.order.cancellation;
+
+import com.order.cache.OrderCache;
+import com.order.client.PaymentsClient;
+import com.order.client.PaymentsClientException;
+import com.order.config.CancellationProperties;
+import com.order.dto.PaymentResponse;
+import com.order.kafka.RefundCommandPublisher;
+import com.order.model.Order;
+import com.order.model.OrderStatus;
+import com.order.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finishes cancellations whose refund outcome never arrived. Orders left in CANCELLATION_PENDING
+ * past {@code app.cancellation.retry-after} are checked against the payment service; a refund it
+ * has already settled is applied directly, otherwise the refund command is sent again (payments
+ * handles repeats). Past {@code app.cancellation.timeout} an unresolved cancellation is marked
+ * CANCELLATION_FAILED; a REFUNDED event arriving later still moves it to CANCELLED.
+ */
+@Component
+public class CancellationSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(CancellationSweeper.class);
+
+    private final OrderRepository orderRepository;
+    private final OrderCache orderCache;
+    private final PaymentsClient paymentsClient;
+    private final RefundCommandPublisher refundCommandPublisher;
+    private final CancellationProperties properties;
+
+    public CancellationSweeper(OrderRepository orderRepository,
+                               OrderCache orderCache,
+                               PaymentsClient paymentsClient,
+                               RefundCommandPublisher refundCommandPublisher,
+                               CancellationProperties properties) {
+        this.orderRepository = orderRepository;
+        this.orderCache = orderCache;
+        this.paymentsClient = paymentsClient;
+        this.refundCommandPublisher = refundCommandPublisher;
+        this.properties = properties;
+    }
+
+    @Scheduled(fixedDelayString = "${app.cancellation.sweep-interval:30s}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expired = now.minus(properties.getTimeout());
+        List<Order> stale = orderRepository.findByStatusAndCancellationRequestedAtBeforeOrderByCancellationRequestedAtAsc(
+                OrderStatus.CANCELLATION_PENDING, now.minus(properties.getRetryAfter()), Limit.of(properties.getBatchSize()));
+        if (stale.isEmpty()) {
+            return;
+        }
+
+        Map<String, String> resolved = new HashMap<>();
+        int resent = 0;
+        for (Order order : stale) {
+            String status = settledStatus(order.getOrderId());
+            if (status == null && order.getCancellationRequestedAt().isBefore(expired)) {
+                status = OrderStatus.CANCELLATION_FAILED;
+            }
+            if (status != null) {
+                resolved.put(order.getOrderId(), status);
+            } else {
+                refundCommandPublisher.requestRefund(order.getOrderId());
+                resent++;
+            }
+        }
+
+        // conditional: an order that a refund event resolved since it was read is left as it is
+        int updated = orderRepository.updateStatuses(resolved);
+        resolved.forEach(orderCache::updateStatus);
+        log.info("Cancellation sweep: pending={}, resolved={}, updated={}, commandsResent={}",
+                stale.size(), resolved.size(), updated, resent);
+    }
+
+    private String settledStatus(String orderId) {
+        try {
+            PaymentResponse payment = paymentsClient.getPaymentByOrderId(orderId);
+            String status = payment == null ? null : payment.getStatus();
+            if ("REFUNDED".equalsIgnoreCase(status)) {
+                return OrderStatus.CANCELLED;
+            }
+            if ("REFUND_FAILED".equalsIgnoreCase(status)) {
+                return OrderStatus.CANCELLATION_FAILED;
+            }
+        } catch (PaymentsClientException e) {
+            log.debug("Could not reconcile cancellation of orderId={} with payments: {}", orderId, e.getMessage());
+        }
+        return null;
+    }
+}
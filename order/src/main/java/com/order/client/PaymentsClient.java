@@ -0,0 +1,242 @@
+package com.order.client;
+
+import com.order.config.PaymentsClientProperties;
+import com.order.dto.PaymentResponse;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Client for the payments service, backed by one pooled Apache HttpClient and load balanced
+ * across payments instances. Every call is limited by a bulkhead (calls in flight), a circuit
+ * breaker and an overall deadline, so a slow or failing payments service costs order a bounded
+ * amount of time per call instead of a request thread each. Idempotent calls are retried on
+ * connection errors and 502/503/504 with jittered exponential backoff, within the deadline.
+ */
+@Component
+public class PaymentsClient implements DisposableBean {
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_CLIENT_ERROR = "client_error";
+    public static final String OUTCOME_SERVER_ERROR = "server_error";
+    public static final String OUTCOME_TIMEOUT = "timeout";
+    public static final String OUTCOME_IO_ERROR = "io_error";
+    public static final String OUTCOME_REJECTED = "rejected";
+    public static final String OUTCOME_SHORT_CIRCUITED = "short_circuited";
+    public static final String OUTCOME_ERROR = "error";
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentsClient.class);
+
+    private final PaymentsClientProperties properties;
+    private final CloseableHttpClient httpClient;
+    private final RestClient restClient;
+    private final Semaphore inFlight;
+    private final CircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+    private final long attemptBudgetNanos;
+
+    public PaymentsClient(@LoadBalanced RestClient.Builder restClientBuilder,
+                          PaymentsClientProperties properties,
+                          MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.httpClient = buildHttpClient(properties);
+        this.restClient = restClientBuilder.clone()
+                .baseUrl(properties.getBaseUrl())
+                .requestFactory(new HttpComponentsClientHttpRequestFactory(httpClient))
+                .build();
+        this.inFlight = new Semaphore(properties.getMaxInFlight());
+        this.attemptBudgetNanos = properties.getConnectTimeout().plus(properties.getResponseTimeout()).toNanos();
+
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(circuitBreakerConfig(properties.getCircuitBreaker()));
+        this.circuitBreaker = circuitBreakers.circuitBreaker("payments");
+        this.circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("Payments circuit breaker {}", event.getStateTransition()));
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        Gauge.builder("payments.client.in-flight", inFlight, permits -> properties.getMaxInFlight() - permits.availablePermits())
+                .description("Calls to the payments service currently in flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The payment recorded for the order.
+     *
+     * @throws PaymentsClientException if no response was obtained within the call's limits, or
+     *                                 with outcome {@code client_error} when there is no payment
+     */
+    public PaymentResponse getPaymentByOrderId(String orderId) {
+        return call("get_payment", true, () -> restClient.get()
+                .uri("/api/payments/order/{orderId}", orderId)
+                .retrieve()
+                .body(PaymentResponse.class));
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        httpClient.close();
+    }
+
+    private <T> T call(String operation, boolean idempotent, Supplier<T> request) {
+        long start = System.nanoTime();
+        String outcome = OUTCOME_ERROR;
+        try {
+            acquire();
+            try {
+                T result = withRetries(operation, idempotent ? properties.getMaxAttempts() : 1, start, request);
+                outcome = OUTCOME_SUCCESS;
+                return result;
+            } finally {
+                inFlight.release();
+            }
+        } catch (PaymentsClientException e) {
+            outcome = e.getOutcome();
+            throw e;
+        } finally {
+            Timer.builder("payments.client.requests")
+                    .description("Calls to the payments service, retries included")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private <T> T withRetries(String operation, int maxAttempts, long start, Supplier<T> request) {
+        long deadline = start + properties.getDeadline().toNanos();
+        for (int attempt = 1; ; attempt++) {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                throw new PaymentsClientException(OUTCOME_SHORT_CIRCUITED, "Payments circuit breaker is open");
+            }
+            long attemptStart = System.nanoTime();
+            PaymentsClientException failure;
+            boolean retryable;
+            try {
+                T result = request.get();
+                circuitBreaker.onSuccess(System.nanoTime() - attemptStart, TimeUnit.NANOSECONDS);
+                return result;
+            } catch (RestClientResponseException e) {
+                int status = e.getStatusCode().value();
+                if (e.getStatusCode().is5xxServerError()) {
+                    circuitBreaker.onError(System.nanoTime() - attemptStart, TimeUnit.NANOSECONDS, e);
+                    failure = new PaymentsClientException(OUTCOME_SERVER_ERROR, "Payments returned " + status, e);
+                } else {
+                    // payments answered, so it is healthy as far as the breaker is concerned
+                    circuitBreaker.onSuccess(System.nanoTime() - attemptStart, TimeUnit.NANOSECONDS);
+                    failure = new PaymentsClientException(OUTCOME_CLIENT_ERROR, "Payments returned " + status, e);
+                }
+                retryable = status == 502 || status == 503 || status == 504;
+            } catch (ResourceAccessException e) {
+                circuitBreaker.onError(System.nanoTime() - attemptStart, TimeUnit.NANOSECONDS, e);
+                String outcome = e.getCause() instanceof InterruptedIOException ? OUTCOME_TIMEOUT : OUTCOME_IO_ERROR;
+                failure = new PaymentsClientException(outcome, "Payments is unreachable: " + e.getMessage(), e);
+                retryable = true;
+            } catch (RuntimeException e) {
+                // e.g. no payments instance registered with the load balancer
+                circuitBreaker.onError(System.nanoTime() - attemptStart, TimeUnit.NANOSECONDS, e);
+                failure = new PaymentsClientException(OUTCOME_ERROR, "Payments call failed: " + e.getMessage(), e);
+                retryable = false;
+            }
+
+            if (!retryable || attempt >= maxAttempts) {
+                throw failure;
+            }
+            long backoffNanos = backoffNanos(attempt);
+            if (System.nanoTime() + backoffNanos + attemptBudgetNanos > deadline) {
+                throw failure;
+            }
+            meterRegistry.counter("payments.client.retries", "operation", operation).increment();
+            sleep(backoffNanos, failure);
+        }
+    }
+
+    // Full jitter: uniformly random in [0, min(maxBackoff, initialBackoff * 2^(attempt - 1))].
+    private long backoffNanos(int attempt) {
+        long initial = properties.getInitialBackoff().toNanos();
+        long cap = Math.min(properties.getMaxBackoff().toNanos(), initial << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private void acquire() {
+        try {
+            if (!inFlight.tryAcquire(properties.getAcquireTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new PaymentsClientException(OUTCOME_REJECTED, "Too many concurrent calls to payments");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentsClientException(OUTCOME_REJECTED, "Interrupted while waiting to call payments", e);
+        }
+    }
+
+    private static void sleep(long nanos, PaymentsClientException failure) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw failure;
+        }
+    }
+
+    private static CircuitBreakerConfig circuitBreakerConfig(PaymentsClientProperties.CircuitBreaker properties) {
+        return CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(properties.getSlidingWindowSize())
+                .minimumNumberOfCalls(properties.getMinimumCalls())
+                .failureRateThreshold(properties.getFailureRateThreshold())
+                .waitDurationInOpenState(properties.getWaitInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(properties.getHalfOpenCalls())
+                .automaticTransitionFromOpenToHalfOpenEnabled(false)
+                .build();
+    }
+
+    private static CloseableHttpClient buildHttpClient(PaymentsClientProperties properties) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxConnections())
+                .setMaxConnPerRoute(properties.getMaxConnections())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(properties.getResponseTimeout()))
+                        .build())
+                .build();
+        TimeValue keepAlive = TimeValue.of(properties.getKeepAlive());
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy((response, context) -> keepAlive)
+                .evictIdleConnections(keepAlive)
+                // retries are ours, bounded by the deadline and the circuit breaker
+                .disableAutomaticRetries()
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(properties.getAcquireTimeout()))
+                        .setResponseTimeout(Timeout.of(properties.getResponseTimeout()))
+                        .build())
+                .build();
+    }
+}
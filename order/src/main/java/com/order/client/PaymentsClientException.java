@@ -0,0 +1,24 @@
+package com.order.client;
+
+/**
+ * A call to the payments service that did not produce a response body. {@link #getOutcome()} is
+ * the same value the call was recorded under in the {@code payments.client.requests} timer.
+ */
+public class PaymentsClientException extends RuntimeException {
+
+    private final String outcome;
+
+    public PaymentsClientException(String outcome, String message) {
+        super(message);
+        this.outcome = outcome;
+    }
+
+    public PaymentsClientException(String outcome, String message, Throwable cause) {
+        super(message, cause);
+        this.outcome = outcome;
+    }
+
+    public String getOutcome() {
+        return outcome;
+    }
+}
@@ -0,0 +1,49 @@
+package com.order.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.cancellation")
+public class CancellationProperties {
+    private Duration sweepInterval = Duration.ofSeconds(30);
+    // A pending cancellation older than this is reconciled with payments and its command re-sent.
+    private Duration retryAfter = Duration.ofSeconds(30);
+    // A pending cancellation older than this that payments cannot resolve ends CANCELLATION_FAILED.
+    private Duration timeout = Duration.ofMinutes(5);
+    private int batchSize = 100;
+
+    public Duration getSweepInterval() {
+        return sweepInterval;
+    }
+
+    public void setSweepInterval(Duration sweepInterval) {
+        this.sweepInterval = sweepInterval;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+}
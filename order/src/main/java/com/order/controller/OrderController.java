@@ -1,25 +1,50 @@
 package com.order.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.order.cache.OrderCache;
 import com.order.dto.OrderRequest;
 import com.order.dto.OrderResponse;
-import com.order.dto.PaymentResponse;
+import com.order.kafka.RefundCommandPublisher;
+import com.order.model.MinorUnits;
 import com.order.model.Order;
+import com.order.model.OrderStatus;
+import com.order.repository.OrderCursor;
 import com.order.repository.OrderRepository;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
 
-    private final RestTemplate restTemplate;
-    private final OrderRepository orderRepository;
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final int MAX_PAGE_SIZE = 1000;
 
-    public OrderController(RestTemplate restTemplate,
-                           OrderRepository orderRepository) {
-        this.restTemplate = restTemplate;
+    private final RefundCommandPublisher refundCommandPublisher;
+    private final OrderRepository orderRepository;
+    private final OrderCache orderCache;
+    private final ObjectMapper objectMapper;
+
+    public OrderController(RefundCommandPublisher refundCommandPublisher,
+                           OrderRepository orderRepository,
+                           OrderCache orderCache,
+                           ObjectMapper objectMapper) {
+        this.refundCommandPublisher = refundCommandPublisher;
         this.orderRepository = orderRepository;
+        this.orderCache = orderCache;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -31,80 +56,131 @@ public class OrderController {
         Order order = new Order();
         order.setOrderId(orderId);
         order.setCustomerName(request.getCustomerName());
-        order.setTotalAmount(request.getTotalAmount());
-        order.setStatus("Pending");
+        order.setTotalAmountMinor(MinorUnits.fromMajor(request.getTotalAmount()));
+        order.setStatus(OrderStatus.PENDING);
 
-        orderRepository.save(order);
+        orderCache.put(orderRepository.save(order));
         return ResponseEntity.ok(new OrderResponse(order.getOrderId(), order.getStatus()));
     }
 
     @PostMapping("/{orderId}/confirm")
     public ResponseEntity<OrderResponse> confirmOrder(@PathVariable String orderId) {
-        return updateStatus(orderId, "Confirmed");
+        return updateStatus(orderId, OrderStatus.CONFIRMED);
     }
 
     @PostMapping("/{orderId}/payment-failed")
     public ResponseEntity<OrderResponse> markPaymentFailed(@PathVariable String orderId) {
-        return updateStatus(orderId, "Payment Failed");
+        return updateStatus(orderId, OrderStatus.PAYMENT_FAILED);
     }
 
+    /**
+     * Starts the cancellation saga and returns 202 with CANCELLATION_PENDING. The refund is
+     * requested from payments over Kafka; its REFUNDED / REFUND_FAILED event moves the order to
+     * CANCELLED or CANCELLATION_FAILED (see PaymentStatusConsumer and CancellationSweeper).
+     */
     @PostMapping("/{orderId}/cancel")
     public ResponseEntity<OrderResponse> cancelOrder(@PathVariable String orderId) {
+        if (orderRepository.requestCancellation(orderId, LocalDateTime.now()) == 1) {
+            // the cached copy lacks cancellationRequestedAt; reload it on the next read
+            orderCache.evict(orderId);
+            refundCommandPublisher.requestRefund(orderId);
+            return ResponseEntity.accepted().body(new OrderResponse(orderId, OrderStatus.CANCELLATION_PENDING));
+        }
         return orderRepository.findById(orderId)
                 .map(order -> {
-                    if (!"Confirmed".equalsIgnoreCase(order.getStatus())) {
-                        return ResponseEntity.status(409)
+                    if (OrderStatus.CANCELLATION_PENDING.equals(order.getStatus())) {
+                        // repeated request for a cancellation already in flight
+                        return ResponseEntity.accepted()
                                 .body(new OrderResponse(order.getOrderId(), order.getStatus()));
                     }
-
-                    order.setStatus("CANCELLATION_PENDING");
-                    orderRepository.save(order);
-
-                    try {
-                        String refundUrl = "http://payments/api/payments/refund/" + order.getOrderId();
-                        ResponseEntity<PaymentResponse> refundResponse =
-                                restTemplate.postForEntity(refundUrl, null, PaymentResponse.class);
-
-                        PaymentResponse refundBody = refundResponse.getBody();
-                        if (refundResponse.getStatusCode().is2xxSuccessful() && refundBody != null) {
-                            String refundStatus = refundBody.getStatus();
-                            if ("REFUNDED".equalsIgnoreCase(refundStatus)) {
-                                order.setStatus("CANCELLED");
-                            } else {
-                                order.setStatus("CANCELLATION_FAILED");
-                            }
-                        } else {
-                            order.setStatus("CANCELLATION_FAILED");
-                        }
-                    } catch (Exception e) {
-                        order.setStatus("CANCELLATION_FAILED");
-                    }
-
-                    orderRepository.save(order);
-                    return ResponseEntity.ok(new OrderResponse(order.getOrderId(), order.getStatus()));
+                    return ResponseEntity.status(409)
+                            .body(new OrderResponse(order.getOrderId(), order.getStatus()));
                 })
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    /**
+     * One page of orders, newest first. When more orders match, the response carries an
+     * {@value #NEXT_CURSOR_HEADER} header to pass back as {@code cursor} for the next page.
+     */
     @GetMapping
-    public ResponseEntity<java.util.List<Order>> getAllOrders() {
-        java.util.List<Order> orders = orderRepository.findAll();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<Order>> getAllOrders(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        OrderCursor after;
+        try {
+            after = (cursor == null || cursor.isBlank()) ? null : OrderCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // one extra row tells whether another page exists without a COUNT query
+        List<Order> orders = orderRepository.findPage(status, from, to, after, pageSize + 1);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (orders.size() > pageSize) {
+            orders = orders.subList(0, pageSize);
+            Order last = orders.get(pageSize - 1);
+            if (last.getCreatedAt() != null) {
+                response.header(NEXT_CURSOR_HEADER, new OrderCursor(last.getCreatedAt(), last.getOrderId()).encode());
+            }
+        }
+        return response.body(orders);
+    }
+
+    /**
+     * All matching orders as newline-delimited JSON, newest first, written while rows are read
+     * from the database so neither side holds the full result.
+     */
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamOrders(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        ObjectWriter writer = objectMapper.writerFor(Order.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                orderRepository.streamOrders(status, from, to, order -> {
+                    try {
+                        writer.writeValue(generator, order);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
     }
 
     @GetMapping("/{orderId}")
     public ResponseEntity<Order> getOrderById(@PathVariable String orderId) {
-        return orderRepository.findById(orderId)
+        return orderCache.findById(orderId)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * One conditional UPDATE on the happy path. Only when it changes nothing is the order read, to
+     * tell a missing order (404) and a repeat (200) from a change its status does not allow (409).
+     */
     private ResponseEntity<OrderResponse> updateStatus(String orderId, String newStatus) {
+        if (orderRepository.updateStatus(orderId, newStatus) == 1) {
+            orderCache.updateStatus(orderId, newStatus);
+            return ResponseEntity.ok(new OrderResponse(orderId, newStatus));
+        }
         return orderRepository.findById(orderId)
                 .map(order -> {
-                    order.setStatus(newStatus);
-                    orderRepository.save(order);
-                    return ResponseEntity.ok(new OrderResponse(order.getOrderId(), order.getStatus()));
+                    OrderResponse current = new OrderResponse(order.getOrderId(), order.getStatus());
+                    return newStatus.equals(order.getStatus())
+                            ? ResponseEntity.ok(current)
+                            : ResponseEntity.status(409).body(current);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -0,0 +1,161 @@
+package com.order.events;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary wire format for {@link PaymentStatusEvent} on the payment-status topic.
+ *
+ * The same codec lives in the payment and order services; keep the two copies identical.
+ * Layout (version 1):
+ * <pre>
+ *   byte    magic (0xB5)
+ *   byte    version (1)
+ *   int64   timestamp, big-endian
+ *   string  orderId, paymentId, razorpayOrderId, status, reason (in that order)
+ * </pre>
+ * A string is an unsigned varint holding (UTF-8 length + 1), 0 meaning null, followed by the
+ * bytes. Decoders ignore trailing bytes, so fields may be appended without a version bump;
+ * anything else needs a new version.
+ */
+public final class PaymentStatusEventCodec {
+
+    public static final String CONTENT_TYPE_HEADER = "content-type";
+    public static final String BINARY_CONTENT_TYPE = "application/vnd.payment-status.v1+binary";
+    public static final String JSON_CONTENT_TYPE = "application/json";
+
+    static final byte MAGIC = (byte) 0xB5;
+    static final byte VERSION = 1;
+
+    private PaymentStatusEventCodec() {
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length >= 2 && data[0] == MAGIC;
+    }
+
+    public static byte[] encode(PaymentStatusEvent event) {
+        byte[] orderId = utf8(event.getOrderId());
+        byte[] paymentId = utf8(event.getPaymentId());
+        byte[] razorpayOrderId = utf8(event.getRazorpayOrderId());
+        byte[] status = utf8(event.getStatus());
+        byte[] reason = utf8(event.getReason());
+
+        int size = 2 + Long.BYTES + sizeOf(orderId) + sizeOf(paymentId) + sizeOf(razorpayOrderId)
+                + sizeOf(status) + sizeOf(reason);
+        byte[] out = new byte[size];
+        out[0] = MAGIC;
+        out[1] = VERSION;
+        int pos = writeLong(out, 2, event.getTimestamp());
+        pos = writeString(out, pos, orderId);
+        pos = writeString(out, pos, paymentId);
+        pos = writeString(out, pos, razorpayOrderId);
+        pos = writeString(out, pos, status);
+        writeString(out, pos, reason);
+        return out;
+    }
+
+    public static PaymentStatusEvent decode(byte[] data) {
+        if (!isBinary(data)) {
+            throw new IllegalArgumentException("Not a binary payment status event");
+        }
+        if (data[1] != VERSION) {
+            throw new IllegalArgumentException("Unsupported payment status event version " + data[1]);
+        }
+        Reader reader = new Reader(data, 2);
+        PaymentStatusEvent event = new PaymentStatusEvent();
+        event.setTimestamp(reader.readLong());
+        event.setOrderId(reader.readString());
+        event.setPaymentId(reader.readString());
+        event.setRazorpayOrderId(reader.readString());
+        event.setStatus(reader.readString());
+        event.setReason(reader.readString());
+        return event;
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int sizeOf(byte[] value) {
+        int length = value == null ? 0 : value.length;
+        return varintSize(value == null ? 0 : length + 1) + length;
+    }
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static int writeLong(byte[] out, int pos, long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out[pos++] = (byte) (value >>> shift);
+        }
+        return pos;
+    }
+
+    private static int writeString(byte[] out, int pos, byte[] value) {
+        int header = value == null ? 0 : value.length + 1;
+        while ((header & ~0x7F) != 0) {
+            out[pos++] = (byte) ((header & 0x7F) | 0x80);
+            header >>>= 7;
+        }
+        out[pos++] = (byte) header;
+        if (value != null) {
+            System.arraycopy(value, 0, out, pos, value.length);
+            pos += value.length;
+        }
+        return pos;
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int pos;
+
+        Reader(byte[] data, int pos) {
+            this.data = data;
+            this.pos = pos;
+        }
+
+        long readLong() {
+            require(Long.BYTES);
+            long value = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                value = (value << 8) | (data[pos++] & 0xFF);
+            }
+            return value;
+        }
+
+        String readString() {
+            int header = 0;
+            for (int shift = 0; ; shift += 7) {
+                require(1);
+                byte b = data[pos++];
+                header |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    break;
+                }
+                if (shift >= 28) {
+                    throw new IllegalArgumentException("Malformed payment status event: bad string length");
+                }
+            }
+            if (header == 0) {
+                return null;
+            }
+            int length = header - 1;
+            require(length);
+            String value = new String(data, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+
+        private void require(int bytes) {
+            if (bytes < 0 || pos + bytes > data.length) {
+                throw new IllegalArgumentException("Malformed payment status event: truncated");
+            }
+        }
+    }
+}
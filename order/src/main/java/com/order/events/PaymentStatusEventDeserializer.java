@@ -0,0 +1,72 @@
+package com.order.events;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Kafka deserializer for payment status events. The {@code content-type} header selects the
+ * binary codec or JSON; records without the header (written before the binary format existed)
+ * are detected by their leading byte.
+ */
+public class PaymentStatusEventDeserializer implements Deserializer<PaymentStatusEvent> {
+
+    private final ObjectMapper objectMapper;
+
+    public PaymentStatusEventDeserializer() {
+        this(new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false));
+    }
+
+    public PaymentStatusEventDeserializer(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public PaymentStatusEvent deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        return PaymentStatusEventCodec.isBinary(data) ? decodeBinary(data) : decodeJson(data);
+    }
+
+    @Override
+    public PaymentStatusEvent deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        Header contentType = headers == null ? null : headers.lastHeader(PaymentStatusEventCodec.CONTENT_TYPE_HEADER);
+        if (contentType == null) {
+            return deserialize(topic, data);
+        }
+        String value = new String(contentType.value(), StandardCharsets.UTF_8);
+        if (PaymentStatusEventCodec.BINARY_CONTENT_TYPE.equals(value)) {
+            return decodeBinary(data);
+        }
+        if (PaymentStatusEventCodec.JSON_CONTENT_TYPE.equals(value)) {
+            return decodeJson(data);
+        }
+        throw new SerializationException("Unsupported payment status content-type: " + value);
+    }
+
+    private static PaymentStatusEvent decodeBinary(byte[] data) {
+        try {
+            return PaymentStatusEventCodec.decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException(e.getMessage(), e);
+        }
+    }
+
+    private PaymentStatusEvent decodeJson(byte[] data) {
+        try {
+            return objectMapper.readValue(data, PaymentStatusEvent.class);
+        } catch (IOException e) {
+            throw new SerializationException("Failed to parse payment status event JSON", e);
+        }
+    }
+}
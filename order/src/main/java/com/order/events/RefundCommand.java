@@ -0,0 +1,34 @@
+package com.order.events;
+
+/**
+ * Asks the payment service to refund an order's payment. Keyed by orderId; the outcome comes
+ * back as a REFUNDED or REFUND_FAILED {@link PaymentStatusEvent}.
+ */
+public class RefundCommand {
+    private String orderId;
+    private long requestedAt;
+
+    public RefundCommand() {
+    }
+
+    public RefundCommand(String orderId, long requestedAt) {
+        this.orderId = orderId;
+        this.requestedAt = requestedAt;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(String orderId) {
+        this.orderId = orderId;
+    }
+
+    public long getRequestedAt() {
+        return requestedAt;
+    }
+
+    public void setRequestedAt(long requestedAt) {
+        this.requestedAt = requestedAt;
+    }
+}
@@ -1,65 +1,227 @@
 package com.order.kafka;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.order.cache.OrderCache;
 import com.order.events.PaymentStatusEvent;
-import com.order.model.Order;
+import com.order.model.OrderStatus;
 import com.order.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.propagation.Propagator;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 @Component
 public class PaymentStatusConsumer {
 
     private static final Logger log = LoggerFactory.getLogger(PaymentStatusConsumer.class);
+    private static final String TRACE_PARENT = "traceparent";
 
-    private final ObjectMapper objectMapper;
     private final OrderRepository orderRepository;
+    private final OrderCache orderCache;
+    private final Timer lag;
+    private final Timer batchSuccess;
+    private final Timer batchFailure;
+    private final Counter ordersUpdated;
+    private final Counter ordersUnchanged;
+    private final Propagator propagator;
 
-    public PaymentStatusConsumer(ObjectMapper objectMapper, OrderRepository orderRepository) {
-        this.objectMapper = objectMapper;
+    public PaymentStatusConsumer(OrderRepository orderRepository, OrderCache orderCache, MeterRegistry meterRegistry,
+                                 Propagator propagator) {
         this.orderRepository = orderRepository;
+        this.orderCache = orderCache;
+        this.propagator = propagator;
+        this.lag = Timer.builder("order.payment-status.lag")
+                .description("Time from a payment status event being produced until this service consumed it")
+                .register(meterRegistry);
+        this.batchSuccess = Timer.builder("order.payment-status.batch")
+                .description("Time to apply one polled batch of payment status events to the orders table")
+                .tag("outcome", "success")
+                .register(meterRegistry);
+        this.batchFailure = Timer.builder("order.payment-status.batch")
+                .description("Time to apply one polled batch of payment status events to the orders table")
+                .tag("outcome", "failure")
+                .register(meterRegistry);
+        this.ordersUpdated = Counter.builder("order.payment-status.orders")
+                .description("Orders whose status a payment status event changed, or left unchanged because the change was not allowed")
+                .tag("result", "updated")
+                .register(meterRegistry);
+        this.ordersUnchanged = Counter.builder("order.payment-status.orders")
+                .description("Orders whose status a payment status event changed, or left unchanged because the change was not allowed")
+                .tag("result", "unchanged")
+                .register(meterRegistry);
     }
 
-    @KafkaListener(topics = "${app.kafka.payment-status-topic}")
-    public void consume(String payload) {
+    /**
+     * Applies a poll's worth of payment status events as conditional JDBC batches without reading the
+     * orders first. An order's events are applied in the order they arrived, one batch per step, so a
+     * SUCCESS followed by REFUNDED in the same poll passes through Confirmed on its way to Cancelled.
+     * Changes the order's current status does not allow (a late FAILED after Confirmed, a repeat, an
+     * unknown order) update no row. Records that failed to deserialize arrive as null and are skipped.
+     * A failed write is rethrown so the container's error handler retries the batch instead of
+     * committing its offsets; re-applying the part that succeeded changes nothing.
+     */
+    @KafkaListener(
+            topics = "${app.kafka.payment-status-topic}",
+            batch = "true",
+            concurrency = "${app.kafka.payment-status-concurrency:1}"
+    )
+    public void consume(List<ConsumerRecord<String, PaymentStatusEvent>> records) {
+        List<Span> spans = startReceiveSpans(records);
+        long start = System.nanoTime();
         try {
-            PaymentStatusEvent event = objectMapper.readValue(payload, PaymentStatusEvent.class);
-            if (event.getOrderId() == null || event.getOrderId().isBlank()) {
-                log.warn("Skipping payment status event without orderId: {}", payload);
-                return;
+            apply(records);
+            batchSuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            spans.forEach(Span::end);
+        } catch (RuntimeException e) {
+            batchFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            spans.forEach(span -> span.error(e).end());
+            log.warn("Failed to apply payment status batch of {} records, it will be retried", records.size(), e);
+            throw e;
+        }
+    }
+
+    private void apply(List<ConsumerRecord<String, PaymentStatusEvent>> records) {
+        Map<String, List<String>> changesByOrderId = changesByOrderId(records);
+        if (changesByOrderId.isEmpty()) {
+            return;
+        }
+
+        int updated = 0;
+        int changed = 0;
+        for (int step = 0; ; step++) {
+            Map<String, String> changes = new HashMap<>();
+            for (Map.Entry<String, List<String>> entry : changesByOrderId.entrySet()) {
+                if (step < entry.getValue().size()) {
+                    changes.put(entry.getKey(), entry.getValue().get(step));
+                }
+            }
+            if (changes.isEmpty()) {
+                break;
             }
+            updated += orderRepository.updateStatuses(changes);
+            changed += changes.size();
+        }
+        ordersUpdated.increment(updated);
+        ordersUnchanged.increment(changed - updated);
+        log.info("Order statuses updated via Kafka: records={}, orders={}, updated={}",
+                records.size(), changesByOrderId.size(), updated);
+    }
 
-            Order order = orderRepository.findById(event.getOrderId()).orElse(null);
-            if (order == null) {
-                log.warn("Order not found for payment event: orderId={}, status={}", event.getOrderId(), event.getStatus());
-                return;
+    /**
+     * Records each record's produce-to-consume lag and, for records that carry trace headers, starts
+     * a consumer span in the publishing request's trace. A batch mixes many checkouts, so every
+     * traced record gets its own span covering the batch write that applies it.
+     */
+    private List<Span> startReceiveSpans(List<ConsumerRecord<String, PaymentStatusEvent>> records) {
+        long now = System.currentTimeMillis();
+        List<Span> spans = new ArrayList<>();
+        for (ConsumerRecord<String, PaymentStatusEvent> record : records) {
+            // producer create time; records without one (NO_TIMESTAMP) carry -1
+            if (record.timestamp() >= 0) {
+                lag.record(Math.max(0, now - record.timestamp()), TimeUnit.MILLISECONDS);
+            }
+            if (record.headers().lastHeader(TRACE_PARENT) == null) {
+                continue;
             }
+            spans.add(propagator.extract(record.headers(), PaymentStatusConsumer::header)
+                    .name(record.topic() + " process")
+                    .kind(Span.Kind.CONSUMER)
+                    .tag("messaging.system", "kafka")
+                    .tag("messaging.kafka.message.key", String.valueOf(record.key()))
+                    .tag("messaging.kafka.partition", String.valueOf(record.partition()))
+                    .tag("messaging.kafka.offset", String.valueOf(record.offset()))
+                    .start());
+        }
+        return spans;
+    }
+
+    private static String header(Headers headers, String key) {
+        Header header = headers.lastHeader(key);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
 
-            String normalizedStatus = event.getStatus() == null ? "" : event.getStatus().trim().toUpperCase();
-            String newStatus;
-            switch (normalizedStatus) {
-                case "SUCCESS":
-                case "VERIFIED":
-                    newStatus = "Confirmed";
-                    break;
-                case "FAILED":
-                case "FAILURE":
-                case "CANCELLED":
-                    newStatus = "Payment Failed";
-                    break;
-                default:
-                    log.info("Ignoring unsupported payment event status for orderId={}: {}", event.getOrderId(), event.getStatus());
-                    return;
+    /**
+     * Feeds the local {@link OrderCache}. Unlike {@link #consume} this listener uses a group of its
+     * own per instance, so every instance sees every event and no cache serves a status that the
+     * partition owner has already changed. It only touches memory; the database write stays with
+     * the partition owner.
+     */
+    @KafkaListener(
+            id = "order-cache-feed",
+            topics = "${app.kafka.payment-status-topic}",
+            groupId = "${app.kafka.cache-feed-group}",
+            batch = "true",
+            properties = "auto.offset.reset=latest"
+    )
+    public void refreshCache(List<ConsumerRecord<String, PaymentStatusEvent>> records) {
+        changesByOrderId(records).forEach((orderId, statuses) ->
+                statuses.forEach(status -> orderCache.updateStatus(orderId, status)));
+    }
+
+    /**
+     * Each order's status changes in record order. Records arrive in partition order and an order's
+     * events share a partition, so this is the order they were published in. Consecutive repeats of
+     * the same status are collapsed.
+     */
+    private static Map<String, List<String>> changesByOrderId(List<ConsumerRecord<String, PaymentStatusEvent>> records) {
+        Map<String, List<String>> changesByOrderId = new LinkedHashMap<>();
+        for (ConsumerRecord<String, PaymentStatusEvent> record : records) {
+            PaymentStatusEvent event = record.value();
+            if (event == null) {
+                log.error("Skipping undecodable payment status event: partition={}, offset={}",
+                        record.partition(), record.offset());
+                continue;
             }
+            if (event.getOrderId() == null || event.getOrderId().isBlank()) {
+                log.warn("Skipping payment status event without orderId: partition={}, offset={}",
+                        record.partition(), record.offset());
+                continue;
+            }
+            String newStatus = toOrderStatus(event.getStatus());
+            if (newStatus == null) {
+                log.info("Ignoring unsupported payment event status for orderId={}: {}", event.getOrderId(), event.getStatus());
+                continue;
+            }
+            List<String> changes = changesByOrderId.computeIfAbsent(event.getOrderId(), orderId -> new ArrayList<>());
+            if (changes.isEmpty() || !changes.get(changes.size() - 1).equals(newStatus)) {
+                changes.add(newStatus);
+            }
+        }
+        return changesByOrderId;
+    }
 
-            order.setStatus(newStatus);
-            orderRepository.save(order);
-            log.info("Order status updated via Kafka: orderId={}, status={}, reason={}",
-                    order.getOrderId(), newStatus, event.getReason());
-        } catch (Exception e) {
-            log.error("Failed to process payment status event payload={}", payload, e);
+    private static String toOrderStatus(String paymentStatus) {
+        String normalizedStatus = paymentStatus == null ? "" : paymentStatus.trim().toUpperCase();
+        switch (normalizedStatus) {
+            case "SUCCESS":
+            case "VERIFIED":
+                return OrderStatus.CONFIRMED;
+            case "FAILED":
+            case "FAILURE":
+            case "CANCELLED":
+                return OrderStatus.PAYMENT_FAILED;
+            // outcomes of the refund requested by cancelOrder
+            case "REFUNDED":
+                return OrderStatus.CANCELLED;
+            case "REFUND_FAILED":
+                return OrderStatus.CANCELLATION_FAILED;
+            default:
+                return null;
         }
     }
 }
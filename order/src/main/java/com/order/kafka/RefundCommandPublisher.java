@@ -0,0 +1,53 @@
+package com.order.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.order.events.RefundCommand;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends refund commands to the payment service. Sends are fire-and-forget: a command that is
+ * lost leaves the order in CANCELLATION_PENDING, where the cancellation sweeper re-sends it.
+ */
+@Component
+public class RefundCommandPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(RefundCommandPublisher.class);
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final String topic;
+
+    public RefundCommandPublisher(KafkaTemplate<String, String> kafkaTemplate,
+                                  ObjectMapper objectMapper,
+                                  @Value("${app.kafka.refund-command-topic}") String topic) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.topic = topic;
+    }
+
+    public void requestRefund(String orderId) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(new RefundCommand(orderId, System.currentTimeMillis()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize refund command for orderId=" + orderId, e);
+        }
+        try {
+            kafkaTemplate.send(topic, orderId, payload).whenComplete((result, ex) -> {
+                if (ex != null) {
+                    log.warn("Refund command not sent for orderId={}, the cancellation sweeper will retry: {}",
+                            orderId, ex.getMessage());
+                }
+            });
+        } catch (RuntimeException e) {
+            // send() itself throws when metadata or buffer space is unavailable within max.block.ms
+            log.warn("Refund command not sent for orderId={}, the cancellation sweeper will retry: {}",
+                    orderId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.order.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Converts between the major-unit amounts of the API (rupees, as doubles) and the integer minor
+ * units (paise) stored in the database. Every currency handled here has two decimal places.
+ */
+public final class MinorUnits {
+
+    private static final int SCALE = 2;
+
+    private MinorUnits() {
+    }
+
+    /**
+     * Rounds half up from the shortest decimal form of {@code amount}, so 10.005 becomes 1001.
+     */
+    public static Long fromMajor(Double amount) {
+        if (amount == null) {
+            return null;
+        }
+        return BigDecimal.valueOf(amount).movePointRight(SCALE).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static Double toMajor(Long minor) {
+        return minor == null ? null : BigDecimal.valueOf(minor, SCALE).doubleValue();
+    }
+}
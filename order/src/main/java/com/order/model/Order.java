@@ -1,23 +1,34 @@
 package com.order.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // keyset pagination in OrderRepositoryImpl, with and without a status filter
+        @Index(name = "idx_orders_created_at_order_id", columnList = "created_at, order_id"),
+        @Index(name = "idx_orders_status_created_at_order_id", columnList = "status, created_at, order_id"),
+        // CancellationSweeper
+        @Index(name = "idx_orders_status_cancellation_requested_at", columnList = "status, cancellation_requested_at")
+})
 public class Order {
     @Id
     private String orderId;
 
     private String customerName;
-    private Double totalAmount;
+    // In paise; the API exposes rupees through getTotalAmount(). See MinorUnits.
+    private Long totalAmountMinor;
     // Possible values: Pending, Confirmed, Payment Failed, Payment Error,
     // Payment Service Unavailable, CANCELLATION_PENDING, CANCELLED, CANCELLATION_FAILED
     private String status;
     private LocalDateTime createdAt;
+    // Set when the order enters CANCELLATION_PENDING; drives the cancellation sweeper.
+    private LocalDateTime cancellationRequestedAt;
 
     @PrePersist
     protected void onCreate() {
@@ -26,10 +37,10 @@ public class Order {
 
     // Constructors
     public Order() {}
-    public Order(String orderId, String customerName, Double totalAmount, String status) {
+    public Order(String orderId, String customerName, Long totalAmountMinor, String status) {
         this.orderId = orderId;
         this.customerName = customerName;
-        this.totalAmount = totalAmount;
+        this.totalAmountMinor = totalAmountMinor;
         this.status = status;
     }
 
@@ -47,10 +58,14 @@ public class Order {
         this.customerName = customerName;
     }
     public Double getTotalAmount() {
-        return totalAmount;
+        return MinorUnits.toMajor(totalAmountMinor);
     }
-    public void setTotalAmount(Double totalAmount) {
-        this.totalAmount = totalAmount;
+    @JsonIgnore
+    public Long getTotalAmountMinor() {
+        return totalAmountMinor;
+    }
+    public void setTotalAmountMinor(Long totalAmountMinor) {
+        this.totalAmountMinor = totalAmountMinor;
     }
     public String getStatus() {
         return status;
@@ -64,4 +79,10 @@ public class Order {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+    public LocalDateTime getCancellationRequestedAt() {
+        return cancellationRequestedAt;
+    }
+    public void setCancellationRequestedAt(LocalDateTime cancellationRequestedAt) {
+        this.cancellationRequestedAt = cancellationRequestedAt;
+    }
 }
\ No newline at end of file
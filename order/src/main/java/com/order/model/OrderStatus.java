@@ -0,0 +1,47 @@
+package com.order.model;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Order status values and the statuses each one may be reached from. Status writes are
+ * conditional on this table ({@code UPDATE ... WHERE status IN (...)}, see
+ * {@code OrderRepositoryCustom}), so a late or repeated event can never move an order backwards,
+ * e.g. a FAILED payment event arriving after the order was Confirmed.
+ */
+public final class OrderStatus {
+
+    public static final String PENDING = "Pending";
+    public static final String CONFIRMED = "Confirmed";
+    public static final String PAYMENT_FAILED = "Payment Failed";
+    public static final String PAYMENT_ERROR = "Payment Error";
+    public static final String PAYMENT_SERVICE_UNAVAILABLE = "Payment Service Unavailable";
+    public static final String CANCELLATION_PENDING = "CANCELLATION_PENDING";
+    public static final String CANCELLED = "CANCELLED";
+    public static final String CANCELLATION_FAILED = "CANCELLATION_FAILED";
+
+    private static final Map<String, Set<String>> ALLOWED_FROM = Map.of(
+            // a successful payment may follow failed attempts
+            CONFIRMED, Set.of(PENDING, PAYMENT_FAILED, PAYMENT_ERROR, PAYMENT_SERVICE_UNAVAILABLE),
+            PAYMENT_FAILED, Set.of(PENDING, PAYMENT_ERROR, PAYMENT_SERVICE_UNAVAILABLE),
+            CANCELLATION_PENDING, Set.of(CONFIRMED),
+            // Confirmed: a refund made directly on the payment service; CANCELLATION_FAILED: a
+            // REFUNDED event arriving after the cancellation sweeper gave up
+            CANCELLED, Set.of(CONFIRMED, CANCELLATION_PENDING, CANCELLATION_FAILED),
+            CANCELLATION_FAILED, Set.of(CANCELLATION_PENDING));
+
+    private OrderStatus() {
+    }
+
+    /**
+     * Statuses an order may move to {@code target} from; empty for unknown targets and for
+     * Pending, which is only ever set on creation.
+     */
+    public static Set<String> allowedFrom(String target) {
+        return ALLOWED_FROM.getOrDefault(target, Set.of());
+    }
+
+    public static boolean canTransition(String from, String to) {
+        return allowedFrom(to).contains(from);
+    }
+}
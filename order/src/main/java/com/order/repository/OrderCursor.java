@@ -0,0 +1,52 @@
+package com.order.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last order on a page, i.e. the (createdAt, orderId) pair the next page starts
+ * after. Clients only see the opaque {@link #encode()} form.
+ */
+public final class OrderCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private final LocalDateTime createdAt;
+    private final String orderId;
+
+    public OrderCursor(LocalDateTime createdAt, String orderId) {
+        this.createdAt = createdAt;
+        this.orderId = orderId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public String encode() {
+        String raw = createdAt + String.valueOf(SEPARATOR) + orderId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value was not produced by {@link #encode()}
+     */
+    public static OrderCursor decode(String value) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator <= 0 || separator == raw.length() - 1) {
+                throw new IllegalArgumentException("Malformed order cursor");
+            }
+            return new OrderCursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed order cursor", e);
+        }
+    }
+}
@@ -1,7 +1,14 @@
 package com.order.repository;
 
 import com.order.model.Order;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-public interface OrderRepository extends JpaRepository<Order, String> {}
+import java.time.LocalDateTime;
+import java.util.List;
 
+public interface OrderRepository extends JpaRepository<Order, String>, OrderRepositoryCustom {
+
+    List<Order> findByStatusAndCancellationRequestedAtBeforeOrderByCancellationRequestedAtAsc(
+            String status, LocalDateTime cutoff, Limit limit);
+}
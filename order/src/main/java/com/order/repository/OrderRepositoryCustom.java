@@ -0,0 +1,44 @@
+package com.order.repository;
+
+import com.order.model.Order;
+import com.order.model.OrderStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public interface OrderRepositoryCustom {
+
+    /**
+     * Moves the order to {@code status} if its current status allows it ({@link OrderStatus#allowedFrom}),
+     * in a single statement. Returns 0 when the order does not exist or is in another status.
+     */
+    int updateStatus(String orderId, String status);
+
+    /**
+     * {@link #updateStatus} for many orders: writes the given orderId -> status changes as one
+     * JDBC batch per target status and returns the number of rows updated.
+     */
+    int updateStatuses(Map<String, String> statusByOrderId);
+
+    /**
+     * Moves a Confirmed order to CANCELLATION_PENDING and stamps {@code requestedAt}. Returns 0
+     * when the order does not exist or is not Confirmed.
+     */
+    int requestCancellation(String orderId, LocalDateTime requestedAt);
+
+    /**
+     * Returns up to {@code limit} orders, newest first, that come after {@code after} in
+     * (createdAt, orderId) order. Every filter argument may be null; {@code from} is inclusive and
+     * {@code to} exclusive.
+     */
+    List<Order> findPage(String status, LocalDateTime from, LocalDateTime to, OrderCursor after, int limit);
+
+    /**
+     * Hands every matching order, newest first, to {@code sink} while the rows are read from a
+     * server-side cursor, so memory use does not grow with the result. Holds a connection until
+     * the last row has been consumed.
+     */
+    void streamOrders(String status, LocalDateTime from, LocalDateTime to, Consumer<Order> sink);
+}
@@ -0,0 +1,150 @@
+package com.order.repository;
+
+import com.order.model.Order;
+import com.order.model.OrderStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    private static final String SELECT_ORDERS =
+            "SELECT order_id, customer_name, total_amount_minor, status, created_at, cancellation_requested_at"
+                    + " FROM orders WHERE 1 = 1";
+    private static final String NEWEST_FIRST = " ORDER BY created_at DESC, order_id DESC";
+
+    private static final RowMapper<Order> ORDER_ROW_MAPPER = (rs, rowNum) -> {
+        Order order = new Order(
+                rs.getString("order_id"),
+                rs.getString("customer_name"),
+                rs.getObject("total_amount_minor", Long.class),
+                rs.getString("status"));
+        order.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        order.setCancellationRequestedAt(rs.getObject("cancellation_requested_at", LocalDateTime.class));
+        return order;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    OrderRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int updateStatus(String orderId, String status) {
+        Set<String> from = OrderStatus.allowedFrom(status);
+        if (from.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(conditionalUpdate("status = ?", from), statusArgs(from, status, orderId));
+    }
+
+    @Override
+    public int updateStatuses(Map<String, String> statusByOrderId) {
+        Map<String, List<Object[]>> rowsByStatus = new HashMap<>();
+        statusByOrderId.forEach((orderId, status) -> {
+            Set<String> from = OrderStatus.allowedFrom(status);
+            if (!from.isEmpty()) {
+                rowsByStatus.computeIfAbsent(status, s -> new ArrayList<>()).add(statusArgs(from, status, orderId));
+            }
+        });
+        int updated = 0;
+        for (Map.Entry<String, List<Object[]>> batch : rowsByStatus.entrySet()) {
+            Set<String> from = OrderStatus.allowedFrom(batch.getKey());
+            int[] counts = jdbcTemplate.batchUpdate(conditionalUpdate("status = ?", from), batch.getValue());
+            for (int count : counts) {
+                // the driver may report SUCCESS_NO_INFO (-2) for rewritten batches; treat it as one row
+                updated += count < 0 ? 1 : count;
+            }
+        }
+        return updated;
+    }
+
+    @Override
+    public int requestCancellation(String orderId, LocalDateTime requestedAt) {
+        Set<String> from = OrderStatus.allowedFrom(OrderStatus.CANCELLATION_PENDING);
+        List<Object> args = new ArrayList<>();
+        args.add(OrderStatus.CANCELLATION_PENDING);
+        args.add(Timestamp.valueOf(requestedAt));
+        args.add(orderId);
+        args.addAll(from);
+        return jdbcTemplate.update(conditionalUpdate("status = ?, cancellation_requested_at = ?", from), args.toArray());
+    }
+
+    private static String conditionalUpdate(String assignments, Set<String> from) {
+        return "UPDATE orders SET " + assignments + " WHERE order_id = ? AND status IN ("
+                + String.join(", ", Collections.nCopies(from.size(), "?")) + ")";
+    }
+
+    private static Object[] statusArgs(Set<String> from, String status, String orderId) {
+        Object[] args = new Object[2 + from.size()];
+        args[0] = status;
+        args[1] = orderId;
+        int i = 2;
+        for (String previous : from) {
+            args[i++] = previous;
+        }
+        return args;
+    }
+
+    @Override
+    public List<Order> findPage(String status, LocalDateTime from, LocalDateTime to, OrderCursor after, int limit) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = filtered(status, from, to, args);
+        if (after != null) {
+            // row-value comparison spelled out so MySQL can range-scan (created_at, order_id)
+            sql.append(" AND (created_at < ? OR (created_at = ? AND order_id < ?))");
+            args.add(Timestamp.valueOf(after.getCreatedAt()));
+            args.add(Timestamp.valueOf(after.getCreatedAt()));
+            args.add(after.getOrderId());
+        }
+        sql.append(NEWEST_FIRST).append(" LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), ORDER_ROW_MAPPER, args.toArray());
+    }
+
+    @Override
+    public void streamOrders(String status, LocalDateTime from, LocalDateTime to, Consumer<Order> sink) {
+        List<Object> args = new ArrayList<>();
+        String sql = filtered(status, from, to, args).append(NEWEST_FIRST).toString();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // Connector/J only streams row by row for this fetch size; anything else buffers the whole result
+            statement.setFetchSize(Integer.MIN_VALUE);
+            for (int i = 0; i < args.size(); i++) {
+                statement.setObject(i + 1, args.get(i));
+            }
+            return statement;
+        }, (RowCallbackHandler) rs -> sink.accept(ORDER_ROW_MAPPER.mapRow(rs, 0)));
+    }
+
+    private static StringBuilder filtered(String status, LocalDateTime from, LocalDateTime to, List<Object> args) {
+        StringBuilder sql = new StringBuilder(SELECT_ORDERS);
+        if (status != null) {
+            sql.append(" AND status = ?");
+            args.add(status);
+        }
+        if (from != null) {
+            sql.append(" AND created_at >= ?");
+            args.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND created_at < ?");
+            args.add(Timestamp.valueOf(to));
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,11 @@
+-- Schema as Hibernate's ddl-auto: update created it before migrations were introduced.
+-- Existing databases are baselined at this version and never run it.
+
+CREATE TABLE orders (
+    order_id      VARCHAR(255) NOT NULL,
+    customer_name VARCHAR(255),
+    total_amount  DOUBLE,
+    status        VARCHAR(255),
+    created_at    DATETIME(6),
+    PRIMARY KEY (order_id)
+) ENGINE = InnoDB;
@@ -0,0 +1,6 @@
+-- When a cancellation was accepted; CancellationSweeper times out refunds from here.
+-- The indexes serve GET /api/orders keyset pages, unfiltered and by status.
+ALTER TABLE orders
+    ADD COLUMN cancellation_requested_at DATETIME(6) AFTER created_at,
+    ADD INDEX idx_orders_created_at_order_id (created_at, order_id),
+    ADD INDEX idx_orders_status_created_at_order_id (status, created_at, order_id);
@@ -0,0 +1,13 @@
+-- Amounts move from DOUBLE rupees to exact BIGINT paise. The DECIMAL cast rounds half up from
+-- the shortest decimal form of each value, the same as MinorUnits.fromMajor.
+ALTER TABLE orders ADD COLUMN total_amount_minor BIGINT AFTER customer_name;
+UPDATE orders SET total_amount_minor = ROUND(CAST(total_amount AS DECIMAL(19, 4)) * 100) WHERE total_amount IS NOT NULL;
+
+-- status becomes a one-byte ENUM holding the same labels (OrderStatus); add new values at the
+-- end so the change stays metadata-only. The last index serves the cancellation sweeper's
+-- status + cancellation_requested_at scan.
+ALTER TABLE orders
+    DROP COLUMN total_amount,
+    MODIFY status ENUM ('Pending', 'Confirmed', 'Payment Failed', 'Payment Error', 'Payment Service Unavailable',
+        'CANCELLATION_PENDING', 'CANCELLED', 'CANCELLATION_FAILED'),
+    ADD INDEX idx_orders_status_cancellation_requested_at (status, cancellation_requested_at);
@@ -0,0 +1,139 @@
+package com.order.cache;
+
+import com.order.config.OrderCacheProperties;
+import com.order.model.Order;
+import com.order.model.OrderStatus;
+import com.order.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderCacheTests {
+
+	private final Map<String, Order> rows = new HashMap<>();
+	private final OrderRepository repository = mock(OrderRepository.class);
+	private final OrderCacheProperties properties = new OrderCacheProperties();
+
+	@Test
+	void loadsAnOrderOnItsFirstReadAndServesLaterReadsFromMemory() {
+		OrderCache cache = cache();
+		row("ORD-1", OrderStatus.PENDING);
+
+		assertEquals(OrderStatus.PENDING, status(cache, "ORD-1"));
+		rows.get("ORD-1").setStatus(OrderStatus.CONFIRMED);
+		assertEquals(OrderStatus.PENDING, status(cache, "ORD-1"));
+		verify(repository, times(1)).findById("ORD-1");
+	}
+
+	@Test
+	void doesNotCacheAnUnknownOrder() {
+		OrderCache cache = cache();
+
+		assertTrue(cache.findById("ORD-1").isEmpty());
+		row("ORD-1", OrderStatus.PENDING);
+
+		assertEquals(OrderStatus.PENDING, status(cache, "ORD-1"));
+		verify(repository, times(2)).findById("ORD-1");
+	}
+
+	@Test
+	void cachesACopyOfAWrittenOrder() {
+		OrderCache cache = cache();
+		Order saved = new Order("ORD-1", "Asha", 10_000L, OrderStatus.PENDING);
+
+		cache.put(saved);
+		saved.setStatus(OrderStatus.CONFIRMED);
+
+		assertEquals(OrderStatus.PENDING, status(cache, "ORD-1"));
+		verify(repository, never()).findById(anyString());
+	}
+
+	@Test
+	void appliesAllowedStatusChangesToTheCachedOrder() {
+		OrderCache cache = cache();
+		cache.put(new Order("ORD-1", "Asha", 10_000L, OrderStatus.PENDING));
+
+		cache.updateStatus("ORD-1", OrderStatus.CONFIRMED);
+		assertEquals(OrderStatus.CONFIRMED, status(cache, "ORD-1"));
+		cache.updateStatus("ORD-1", OrderStatus.CONFIRMED);
+		assertEquals(OrderStatus.CONFIRMED, status(cache, "ORD-1"));
+		cache.updateStatus("ORD-1", OrderStatus.CANCELLED);
+		assertEquals(OrderStatus.CANCELLED, status(cache, "ORD-1"));
+		verify(repository, never()).findById(anyString());
+	}
+
+	@Test
+	void dropsTheCachedOrderWhenAChangeIsNotAllowedFromItsStatus() {
+		OrderCache cache = cache();
+		row("ORD-1", OrderStatus.CONFIRMED);
+		cache.put(new Order("ORD-1", "Asha", 10_000L, OrderStatus.PENDING));
+
+		cache.updateStatus("ORD-1", OrderStatus.CANCELLED);
+
+		assertEquals(OrderStatus.CONFIRMED, status(cache, "ORD-1"));
+		verify(repository, times(1)).findById("ORD-1");
+	}
+
+	@Test
+	void leavesUncachedOrdersToTheirNextRead() {
+		OrderCache cache = cache();
+		row("ORD-1", OrderStatus.PENDING);
+
+		cache.updateStatus("ORD-1", OrderStatus.CONFIRMED);
+
+		assertEquals(OrderStatus.PENDING, status(cache, "ORD-1"));
+		verify(repository, times(1)).findById("ORD-1");
+	}
+
+	@Test
+	void reloadsAnEvictedOrder() {
+		OrderCache cache = cache();
+		row("ORD-1", OrderStatus.CONFIRMED);
+		cache.findById("ORD-1");
+		rows.get("ORD-1").setStatus(OrderStatus.CANCELLATION_PENDING);
+
+		cache.evict("ORD-1");
+
+		assertEquals(OrderStatus.CANCELLATION_PENDING, status(cache, "ORD-1"));
+		verify(repository, times(2)).findById("ORD-1");
+	}
+
+	@Test
+	void readsTheRepositoryEveryTimeWhenDisabled() {
+		properties.setEnabled(false);
+		OrderCache cache = cache();
+		row("ORD-1", OrderStatus.PENDING);
+
+		cache.put(new Order("ORD-1", "Asha", 10_000L, OrderStatus.CONFIRMED));
+		cache.findById("ORD-1");
+		cache.findById("ORD-1");
+
+		assertEquals(OrderStatus.PENDING, status(cache, "ORD-1"));
+		verify(repository, times(3)).findById("ORD-1");
+	}
+
+	private OrderCache cache() {
+		when(repository.findById(anyString())).thenAnswer(invocation -> Optional.ofNullable(rows.get(invocation.<String>getArgument(0)))
+				.map(row -> new Order(row.getOrderId(), row.getCustomerName(), row.getTotalAmountMinor(), row.getStatus())));
+		return new OrderCache(repository, properties);
+	}
+
+	private void row(String orderId, String status) {
+		rows.put(orderId, new Order(orderId, "Asha", 10_000L, status));
+	}
+
+	private static String status(OrderCache cache, String orderId) {
+		return cache.findById(orderId).orElseThrow().getStatus();
+	}
+}
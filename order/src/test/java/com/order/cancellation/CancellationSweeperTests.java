@@ -0,0 +1,103 @@
+package com.order.cancellation;
+
+import com.order.cache.OrderCache;
+import com.order.client.PaymentsClient;
+import com.order.client.PaymentsClientException;
+import com.order.config.CancellationProperties;
+import com.order.dto.PaymentResponse;
+import com.order.kafka.RefundCommandPublisher;
+import com.order.model.Order;
+import com.order.model.OrderStatus;
+import com.order.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CancellationSweeperTests {
+
+	private final OrderRepository orderRepository = mock(OrderRepository.class);
+	private final OrderCache orderCache = mock(OrderCache.class);
+	private final PaymentsClient paymentsClient = mock(PaymentsClient.class);
+	private final RefundCommandPublisher refundCommandPublisher = mock(RefundCommandPublisher.class);
+	private final CancellationProperties properties = new CancellationProperties();
+	private final CancellationSweeper sweeper =
+			new CancellationSweeper(orderRepository, orderCache, paymentsClient, refundCommandPublisher, properties);
+
+	@Test
+	void appliesRefundOutcomesThatPaymentsAlreadySettled() {
+		pending(pendingSince("ORD-1", Duration.ofMinutes(1)), pendingSince("ORD-2", Duration.ofMinutes(1)));
+		when(paymentsClient.getPaymentByOrderId("ORD-1")).thenReturn(payment("REFUNDED"));
+		when(paymentsClient.getPaymentByOrderId("ORD-2")).thenReturn(payment("REFUND_FAILED"));
+
+		sweeper.sweep();
+
+		verify(orderRepository).updateStatuses(Map.of(
+				"ORD-1", OrderStatus.CANCELLED,
+				"ORD-2", OrderStatus.CANCELLATION_FAILED));
+		verify(orderCache).updateStatus("ORD-1", OrderStatus.CANCELLED);
+		verify(orderCache).updateStatus("ORD-2", OrderStatus.CANCELLATION_FAILED);
+		verify(refundCommandPublisher, never()).requestRefund(anyString());
+	}
+
+	@Test
+	void resendsTheRefundCommandWhileTheRefundIsUnsettled() {
+		pending(pendingSince("ORD-1", Duration.ofMinutes(1)), pendingSince("ORD-2", Duration.ofMinutes(1)));
+		when(paymentsClient.getPaymentByOrderId("ORD-1")).thenReturn(payment("Success"));
+		when(paymentsClient.getPaymentByOrderId("ORD-2"))
+				.thenThrow(new PaymentsClientException(PaymentsClient.OUTCOME_TIMEOUT, "Payments is unreachable"));
+
+		sweeper.sweep();
+
+		verify(refundCommandPublisher).requestRefund("ORD-1");
+		verify(refundCommandPublisher).requestRefund("ORD-2");
+		verify(orderRepository).updateStatuses(Map.of());
+	}
+
+	@Test
+	void failsCancellationsUnresolvedPastTheTimeout() {
+		pending(pendingSince("ORD-1", properties.getTimeout().plusMinutes(1)));
+		when(paymentsClient.getPaymentByOrderId("ORD-1")).thenReturn(payment("REFUND_PENDING"));
+
+		sweeper.sweep();
+
+		verify(orderRepository).updateStatuses(Map.of("ORD-1", OrderStatus.CANCELLATION_FAILED));
+		verify(orderCache).updateStatus("ORD-1", OrderStatus.CANCELLATION_FAILED);
+		verify(refundCommandPublisher, never()).requestRefund(anyString());
+	}
+
+	@Test
+	void doesNothingWithoutStaleCancellations() {
+		pending();
+
+		sweeper.sweep();
+
+		verify(orderRepository, never()).updateStatuses(any());
+		verify(paymentsClient, never()).getPaymentByOrderId(anyString());
+	}
+
+	private void pending(Order... orders) {
+		when(orderRepository.findByStatusAndCancellationRequestedAtBeforeOrderByCancellationRequestedAtAsc(
+				eq(OrderStatus.CANCELLATION_PENDING), any(), any())).thenReturn(List.of(orders));
+	}
+
+	private static Order pendingSince(String orderId, Duration age) {
+		Order order = new Order(orderId, "Asha", 10_000L, OrderStatus.CANCELLATION_PENDING);
+		order.setCancellationRequestedAt(LocalDateTime.now().minus(age));
+		return order;
+	}
+
+	private static PaymentResponse payment(String status) {
+		return new PaymentResponse(7L, status, "2026-01-01T00:00:00");
+	}
+}
@@ -0,0 +1,101 @@
+package com.order.client;
+
+import com.order.config.PaymentsClientProperties;
+import com.order.dto.PaymentResponse;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PaymentsClientTests {
+
+	private static final String PAYMENT = "{\"paymentId\":7,\"status\":\"REFUNDED\",\"timestamp\":\"2026-01-01T00:00:00\"}";
+
+	private HttpServer stub;
+	private PaymentsClient client;
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final Queue<Integer> statuses = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger requests = new AtomicInteger();
+
+	@BeforeEach
+	void startStub() throws IOException {
+		stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		stub.createContext("/api/payments/order/", exchange -> {
+			requests.incrementAndGet();
+			Integer next = statuses.poll();
+			int status = next == null ? 200 : next;
+			byte[] bytes = (status == 200 ? PAYMENT : "{}").getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(status, bytes.length);
+			exchange.getResponseBody().write(bytes);
+			exchange.close();
+		});
+		stub.start();
+
+		PaymentsClientProperties properties = new PaymentsClientProperties();
+		properties.setBaseUrl("http://127.0.0.1:" + stub.getAddress().getPort());
+		properties.setInitialBackoff(Duration.ofMillis(1));
+		properties.setMaxBackoff(Duration.ofMillis(5));
+		properties.getCircuitBreaker().setMinimumCalls(4);
+		properties.getCircuitBreaker().setSlidingWindowSize(4);
+		client = new PaymentsClient(RestClient.builder(), properties, meterRegistry);
+	}
+
+	@AfterEach
+	void stopStub() throws IOException {
+		client.destroy();
+		stub.stop(0);
+	}
+
+	@Test
+	void retriesUnavailableResponsesWithinTheDeadline() {
+		statuses.add(503);
+		statuses.add(502);
+
+		PaymentResponse payment = client.getPaymentByOrderId("ORD1");
+
+		assertEquals("REFUNDED", payment.getStatus());
+		assertEquals(3, requests.get());
+		assertEquals(2.0, meterRegistry.counter("payments.client.retries", "operation", "get_payment").count());
+		assertEquals(1, meterRegistry.timer("payments.client.requests", "operation", "get_payment", "outcome", "success").count());
+	}
+
+	@Test
+	void doesNotRetryClientErrors() {
+		statuses.add(404);
+
+		PaymentsClientException e = assertThrows(PaymentsClientException.class, () -> client.getPaymentByOrderId("ORD2"));
+
+		assertEquals(PaymentsClient.OUTCOME_CLIENT_ERROR, e.getOutcome());
+		assertEquals(1, requests.get());
+	}
+
+	@Test
+	void opensTheCircuitAfterRepeatedServerErrors() {
+		for (int i = 0; i < 4; i++) {
+			statuses.add(500);
+		}
+		for (int i = 0; i < 4; i++) {
+			assertThrows(PaymentsClientException.class, () -> client.getPaymentByOrderId("ORD3"));
+		}
+
+		PaymentsClientException e = assertThrows(PaymentsClientException.class, () -> client.getPaymentByOrderId("ORD3"));
+
+		assertEquals(PaymentsClient.OUTCOME_SHORT_CIRCUITED, e.getOutcome());
+		assertEquals(4, requests.get());
+		assertEquals(1, meterRegistry.timer("payments.client.requests", "operation", "get_payment", "outcome", "short_circuited").count());
+	}
+}
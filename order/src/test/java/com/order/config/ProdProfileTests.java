@@ -0,0 +1,53 @@
+package com.order.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Binds application-prod.yaml the way Spring Boot does, so a renamed or mistyped key in the
+ * profile fails here rather than silently falling back to a default in production. Payment's
+ * application-prod.yaml is the same file apart from the pool name.
+ */
+class ProdProfileTests {
+
+	@Test
+	void bindsThePoolDriverAndHibernateSettings() throws IOException {
+		Binder binder = prodBinder();
+		HikariConfig hikari = binder.bind("spring.datasource.hikari", HikariConfig.class).get();
+		JpaProperties jpa = binder.bind("spring.jpa", JpaProperties.class).get();
+
+		assertEquals("order-db", hikari.getPoolName());
+		assertEquals(20, hikari.getMaximumPoolSize());
+		assertEquals(hikari.getMaximumPoolSize(), hikari.getMinimumIdle());
+		assertEquals(2000, hikari.getConnectionTimeout());
+		assertEquals("true", hikari.getDataSourceProperties().getProperty("rewriteBatchedStatements"));
+		assertEquals("true", hikari.getDataSourceProperties().getProperty("cachePrepStmts"));
+		assertEquals("true", hikari.getDataSourceProperties().getProperty("useServerPrepStmts"));
+		assertEquals("250", hikari.getDataSourceProperties().getProperty("prepStmtCacheSize"));
+		assertFalse(jpa.isShowSql());
+		assertFalse(jpa.getOpenInView());
+		assertEquals("50", jpa.getProperties().get("hibernate.jdbc.batch_size"));
+		assertEquals("true", jpa.getProperties().get("hibernate.order_updates"));
+		assertEquals("true", jpa.getProperties().get("hibernate.order_inserts"));
+	}
+
+	private static Binder prodBinder() throws IOException {
+		StandardEnvironment environment = new StandardEnvironment();
+		for (PropertySource<?> source : new YamlPropertySourceLoader()
+				.load("application-prod", new ClassPathResource("application-prod.yaml"))) {
+			environment.getPropertySources().addFirst(source);
+		}
+		return Binder.get(environment);
+	}
+}
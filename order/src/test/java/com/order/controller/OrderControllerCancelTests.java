@@ -0,0 +1,79 @@
+package com.order.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.order.cache.OrderCache;
+import com.order.dto.OrderResponse;
+import com.order.kafka.RefundCommandPublisher;
+import com.order.model.Order;
+import com.order.model.OrderStatus;
+import com.order.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderControllerCancelTests {
+
+	private final RefundCommandPublisher refundCommandPublisher = mock(RefundCommandPublisher.class);
+	private final OrderRepository orderRepository = mock(OrderRepository.class);
+	private final OrderCache orderCache = mock(OrderCache.class);
+	private final OrderController controller =
+			new OrderController(refundCommandPublisher, orderRepository, orderCache, new ObjectMapper());
+
+	@Test
+	void acceptsTheCancellationAndRequestsTheRefund() {
+		when(orderRepository.requestCancellation(eq("ORD-1"), any())).thenReturn(1);
+
+		ResponseEntity<OrderResponse> response = controller.cancelOrder("ORD-1");
+
+		assertEquals(202, response.getStatusCode().value());
+		assertEquals(OrderStatus.CANCELLATION_PENDING, response.getBody().getStatus());
+		verify(orderCache).evict("ORD-1");
+		verify(refundCommandPublisher).requestRefund("ORD-1");
+	}
+
+	@Test
+	void answersARepeatedCancelWithoutRequestingAnotherRefund() {
+		when(orderRepository.requestCancellation(eq("ORD-1"), any())).thenReturn(0);
+		when(orderRepository.findById("ORD-1")).thenReturn(Optional.of(order(OrderStatus.CANCELLATION_PENDING)));
+
+		ResponseEntity<OrderResponse> response = controller.cancelOrder("ORD-1");
+
+		assertEquals(202, response.getStatusCode().value());
+		assertEquals(OrderStatus.CANCELLATION_PENDING, response.getBody().getStatus());
+		verify(refundCommandPublisher, never()).requestRefund(anyString());
+	}
+
+	@Test
+	void rejectsCancellingAnOrderThatIsNotConfirmed() {
+		when(orderRepository.requestCancellation(eq("ORD-1"), any())).thenReturn(0);
+		when(orderRepository.findById("ORD-1")).thenReturn(Optional.of(order(OrderStatus.CANCELLED)));
+
+		ResponseEntity<OrderResponse> response = controller.cancelOrder("ORD-1");
+
+		assertEquals(409, response.getStatusCode().value());
+		assertEquals(OrderStatus.CANCELLED, response.getBody().getStatus());
+		verify(refundCommandPublisher, never()).requestRefund(anyString());
+	}
+
+	@Test
+	void answersNotFoundForAnUnknownOrder() {
+		when(orderRepository.requestCancellation(eq("ORD-9"), any())).thenReturn(0);
+		when(orderRepository.findById("ORD-9")).thenReturn(Optional.empty());
+
+		assertEquals(404, controller.cancelOrder("ORD-9").getStatusCode().value());
+	}
+
+	private static Order order(String status) {
+		return new Order("ORD-1", "Asha", 10_000L, status);
+	}
+}
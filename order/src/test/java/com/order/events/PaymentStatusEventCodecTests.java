@@ -0,0 +1,46 @@
+package com.order.events;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PaymentStatusEventCodecTests {
+
+	// Same fixture as the payment service's PaymentStatusEventCodecTests; both sides must agree on it.
+	static final String GOLDEN_V1 = "b5010000018bcfe56800054f524431067061795f31000853554343455353036f6b";
+
+	private final PaymentStatusEventDeserializer deserializer = new PaymentStatusEventDeserializer();
+
+	@Test
+	void decodesVersionOneLayout() {
+		RecordHeaders headers = new RecordHeaders();
+		headers.add(PaymentStatusEventCodec.CONTENT_TYPE_HEADER,
+				PaymentStatusEventCodec.BINARY_CONTENT_TYPE.getBytes(StandardCharsets.UTF_8));
+
+		PaymentStatusEvent event = deserializer.deserialize("payment-status", headers, HexFormat.of().parseHex(GOLDEN_V1));
+
+		assertEquals("ORD1", event.getOrderId());
+		assertEquals("pay_1", event.getPaymentId());
+		assertNull(event.getRazorpayOrderId());
+		assertEquals("SUCCESS", event.getStatus());
+		assertEquals("ok", event.getReason());
+		assertEquals(1700000000000L, event.getTimestamp());
+	}
+
+	@Test
+	void fallsBackToJson() {
+		byte[] json = "{\"orderId\":\"ORD1\",\"status\":\"FAILED\",\"timestamp\":7,\"extra\":true}".getBytes(StandardCharsets.UTF_8);
+		RecordHeaders headers = new RecordHeaders();
+		headers.add(PaymentStatusEventCodec.CONTENT_TYPE_HEADER,
+				PaymentStatusEventCodec.JSON_CONTENT_TYPE.getBytes(StandardCharsets.UTF_8));
+
+		assertEquals("FAILED", deserializer.deserialize("payment-status", headers, json).getStatus());
+		// records produced before the header existed
+		assertEquals("ORD1", deserializer.deserialize("payment-status", new RecordHeaders(), json).getOrderId());
+	}
+}
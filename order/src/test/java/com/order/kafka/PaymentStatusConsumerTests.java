@@ -0,0 +1,142 @@
+package com.order.kafka;
+
+import com.order.cache.OrderCache;
+import com.order.config.OrderCacheProperties;
+import com.order.events.PaymentStatusEvent;
+import com.order.model.Order;
+import com.order.model.OrderStatus;
+import com.order.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.propagation.Propagator;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentStatusConsumerTests {
+
+	private final Map<String, String> statuses = new HashMap<>();
+	private final List<Map<String, String>> writes = new ArrayList<>();
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final OrderRepository orderRepository = repository();
+	private final OrderCache orderCache = new OrderCache(orderRepository, new OrderCacheProperties());
+	private final PaymentStatusConsumer consumer =
+			new PaymentStatusConsumer(orderRepository, orderCache, meterRegistry, Propagator.NOOP);
+
+	@Test
+	void appliesAnOrdersEventsInTheOrderTheyArrived() {
+		statuses.put("ORD-1", OrderStatus.PENDING);
+		statuses.put("ORD-2", OrderStatus.PENDING);
+
+		consumer.consume(List.of(
+				record(0, "ORD-1", "SUCCESS"),
+				record(1, "ORD-2", "FAILED"),
+				record(2, "ORD-1", "REFUNDED")));
+
+		assertEquals(OrderStatus.CANCELLED, statuses.get("ORD-1"));
+		assertEquals(OrderStatus.PAYMENT_FAILED, statuses.get("ORD-2"));
+		assertEquals(List.of(
+				Map.of("ORD-1", OrderStatus.CONFIRMED, "ORD-2", OrderStatus.PAYMENT_FAILED),
+				Map.of("ORD-1", OrderStatus.CANCELLED)), writes);
+		assertEquals(3, orders("updated"));
+		assertEquals(0, orders("unchanged"));
+	}
+
+	@Test
+	void skipsUndecodableUnknownAndRepeatedEvents() {
+		statuses.put("ORD-1", OrderStatus.CONFIRMED);
+
+		consumer.consume(List.of(
+				new ConsumerRecord<>("payment-status", 0, 0, "ORD-1", null),
+				record(1, "ORD-1", "SUCCESS"),
+				record(2, "ORD-1", "CREATED"),
+				record(3, " ", "SUCCESS"),
+				record(4, "ORD-1", "SUCCESS"),
+				record(5, "ORD-1", "FAILED")));
+
+		assertEquals(List.of(
+				Map.of("ORD-1", OrderStatus.CONFIRMED),
+				Map.of("ORD-1", OrderStatus.PAYMENT_FAILED)), writes);
+		assertEquals(OrderStatus.CONFIRMED, statuses.get("ORD-1"));
+		assertEquals(0, orders("updated"));
+		assertEquals(2, orders("unchanged"));
+	}
+
+	@Test
+	void rethrowsAFailedWriteSoTheBatchIsRetried() {
+		statuses.put("ORD-1", OrderStatus.PENDING);
+		RuntimeException writeFailure = new DataAccessResourceFailureException("database unavailable");
+		doThrow(writeFailure).doAnswer(this::updateStatuses).when(orderRepository).updateStatuses(anyMap());
+
+		RuntimeException thrown = assertThrows(RuntimeException.class,
+				() -> consumer.consume(List.of(record(0, "ORD-1", "SUCCESS"))));
+
+		assertEquals(writeFailure, thrown);
+		assertEquals(1, meterRegistry.get("order.payment-status.batch").tag("outcome", "failure").timer().count());
+		assertEquals(0, meterRegistry.get("order.payment-status.batch").tag("outcome", "success").timer().count());
+
+		consumer.consume(List.of(record(0, "ORD-1", "SUCCESS")));
+		assertEquals(OrderStatus.CONFIRMED, statuses.get("ORD-1"));
+	}
+
+	@Test
+	void feedsTheCacheEveryStepOfAnOrdersEvents() {
+		statuses.put("ORD-1", OrderStatus.PENDING);
+		orderCache.findById("ORD-1");
+
+		consumer.refreshCache(List.of(record(0, "ORD-1", "SUCCESS"), record(1, "ORD-1", "REFUNDED")));
+
+		assertEquals(OrderStatus.CANCELLED, orderCache.findById("ORD-1").orElseThrow().getStatus());
+		verify(orderRepository, times(1)).findById("ORD-1");
+		assertEquals(List.of(), writes);
+	}
+
+	private double orders(String result) {
+		return meterRegistry.get("order.payment-status.orders").tag("result", result).counter().count();
+	}
+
+	private static ConsumerRecord<String, PaymentStatusEvent> record(long offset, String orderId, String status) {
+		PaymentStatusEvent event = new PaymentStatusEvent();
+		event.setOrderId(orderId);
+		event.setStatus(status);
+		return new ConsumerRecord<>("payment-status", 0, offset, orderId, event);
+	}
+
+	private OrderRepository repository() {
+		OrderRepository repository = mock(OrderRepository.class);
+		when(repository.updateStatuses(anyMap())).thenAnswer(this::updateStatuses);
+		when(repository.findById(anyString())).thenAnswer(invocation -> Optional.ofNullable(statuses.get(invocation.<String>getArgument(0)))
+				.map(status -> new Order(invocation.getArgument(0), "Asha", 10_000L, status)));
+		return repository;
+	}
+
+	private int updateStatuses(InvocationOnMock invocation) {
+		Map<String, String> changes = invocation.getArgument(0);
+		writes.add(Map.copyOf(changes));
+		int updated = 0;
+		for (Map.Entry<String, String> change : changes.entrySet()) {
+			String current = statuses.get(change.getKey());
+			if (current != null && OrderStatus.canTransition(current, change.getValue())) {
+				statuses.put(change.getKey(), change.getValue());
+				updated++;
+			}
+		}
+		return updated;
+	}
+}
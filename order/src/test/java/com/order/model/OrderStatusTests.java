@@ -0,0 +1,34 @@
+package com.order.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderStatusTests {
+
+	@Test
+	void lateFailureDoesNotOverwriteConfirmed() {
+		assertTrue(OrderStatus.canTransition(OrderStatus.PENDING, OrderStatus.PAYMENT_FAILED));
+		assertTrue(OrderStatus.canTransition(OrderStatus.PAYMENT_FAILED, OrderStatus.CONFIRMED));
+		assertFalse(OrderStatus.canTransition(OrderStatus.CONFIRMED, OrderStatus.PAYMENT_FAILED));
+	}
+
+	@Test
+	void repeatsAreNotTransitions() {
+		assertFalse(OrderStatus.canTransition(OrderStatus.CONFIRMED, OrderStatus.CONFIRMED));
+		assertFalse(OrderStatus.canTransition(OrderStatus.CANCELLED, OrderStatus.CANCELLED));
+	}
+
+	@Test
+	void lateRefundStillCancelsAfterTheSweeperGaveUp() {
+		assertTrue(OrderStatus.canTransition(OrderStatus.CANCELLATION_FAILED, OrderStatus.CANCELLED));
+		assertFalse(OrderStatus.canTransition(OrderStatus.CANCELLED, OrderStatus.CANCELLATION_FAILED));
+	}
+
+	@Test
+	void unknownTargetsAreNeverAllowed() {
+		assertTrue(OrderStatus.allowedFrom("Shipped").isEmpty());
+		assertTrue(OrderStatus.allowedFrom(OrderStatus.PENDING).isEmpty());
+	}
+}
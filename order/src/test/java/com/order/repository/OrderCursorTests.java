@@ -0,0 +1,27 @@
+package com.order.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OrderCursorTests {
+
+	@Test
+	void roundTripsCreatedAtAndOrderId() {
+		LocalDateTime createdAt = LocalDateTime.of(2026, 3, 1, 12, 30, 5, 123_456_000);
+
+		OrderCursor cursor = OrderCursor.decode(new OrderCursor(createdAt, "ORD|1").encode());
+
+		assertEquals(createdAt, cursor.getCreatedAt());
+		assertEquals("ORD|1", cursor.getOrderId());
+	}
+
+	@Test
+	void rejectsValuesItDidNotProduce() {
+		assertThrows(IllegalArgumentException.class, () -> OrderCursor.decode("not a cursor"));
+		assertThrows(IllegalArgumentException.class, () -> OrderCursor.decode("bm90LWEtZGF0ZXxPUkQx"));
+	}
+}
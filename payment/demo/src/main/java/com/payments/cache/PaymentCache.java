@@ -0,0 +1,158 @@
+package com.payments.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.payments.config.PaymentCacheProperties;
+import com.payments.model.Payment;
+import com.payments.repository.PaymentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded read-through cache for payment lookups by orderId and paymentId, sized and expired by
+ * {@code app.cache.payments.*}. Entries are detached copies, and every lookup returns a copy of
+ * its own, so callers may change what they get back without changing the cache.
+ *
+ * Writers call {@link #refreshAfterCommit(Payment)} after saving; the new state is cached once
+ * the transaction commits, so a rollback never leaks into reads. Other instances pick the change
+ * up when their entry expires.
+ */
+@Component
+public class PaymentCache {
+
+    private final PaymentRepository paymentRepository;
+    private final boolean enabled;
+    private final Cache<String, Payment> byOrderId;
+    private final Cache<Long, Payment> byPaymentId;
+
+    public PaymentCache(PaymentRepository paymentRepository,
+                        PaymentCacheProperties properties,
+                        MeterRegistry meterRegistry) {
+        this.paymentRepository = paymentRepository;
+        this.enabled = properties.isEnabled();
+        this.byOrderId = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        this.byPaymentId = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byOrderId, "payments.byOrderId");
+        CaffeineCacheMetrics.monitor(meterRegistry, byPaymentId, "payments.byPaymentId");
+    }
+
+    public Optional<Payment> findByOrderId(String orderId) {
+        if (!enabled) {
+            return paymentRepository.findByOrderId(orderId);
+        }
+        Payment cached = byOrderId.getIfPresent(orderId);
+        if (cached != null) {
+            return Optional.of(copyOf(cached));
+        }
+        // misses are not cached: a payment row may be created for this order at any moment
+        return paymentRepository.findByOrderId(orderId).map(this::put);
+    }
+
+    /**
+     * Looks up many orders at once: cached entries are served from memory and all misses are
+     * loaded with one IN query. Orders without a payment are absent from the result.
+     */
+    public Map<String, Payment> findByOrderIds(Collection<String> orderIds) {
+        Map<String, Payment> found = new HashMap<>();
+        if (enabled) {
+            byOrderId.getAllPresent(orderIds).forEach((orderId, cached) -> found.put(orderId, copyOf(cached)));
+        }
+        List<String> misses = orderIds.stream().filter(orderId -> !found.containsKey(orderId)).toList();
+        if (!misses.isEmpty()) {
+            for (Payment payment : paymentRepository.findByOrderIdIn(misses)) {
+                found.put(payment.getOrderId(), enabled ? put(payment) : payment);
+            }
+        }
+        return found;
+    }
+
+    public Optional<Payment> findById(Long paymentId) {
+        if (!enabled) {
+            return paymentRepository.findById(paymentId);
+        }
+        Payment cached = byPaymentId.getIfPresent(paymentId);
+        if (cached != null) {
+            return Optional.of(copyOf(cached));
+        }
+        return paymentRepository.findById(paymentId).map(this::put);
+    }
+
+    /**
+     * Caches the state {@code payment} has now once the surrounding transaction commits, or
+     * immediately when there is no transaction.
+     */
+    public void refreshAfterCommit(Payment payment) {
+        if (!enabled) {
+            return;
+        }
+        Payment snapshot = copyOf(payment);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            store(snapshot);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                store(snapshot);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    evict(snapshot);
+                }
+            }
+        });
+    }
+
+    private Payment put(Payment payment) {
+        store(copyOf(payment));
+        return payment;
+    }
+
+    private void store(Payment snapshot) {
+        byOrderId.put(snapshot.getOrderId(), snapshot);
+        if (snapshot.getPaymentId() != null) {
+            byPaymentId.put(snapshot.getPaymentId(), snapshot);
+        }
+    }
+
+    private void evict(Payment snapshot) {
+        byOrderId.invalidate(snapshot.getOrderId());
+        if (snapshot.getPaymentId() != null) {
+            byPaymentId.invalidate(snapshot.getPaymentId());
+        }
+    }
+
+    private static Payment copyOf(Payment payment) {
+        Payment copy = new Payment();
+        copy.setPaymentId(payment.getPaymentId());
+        copy.setOrderId(payment.getOrderId());
+        copy.setAmountMinor(payment.getAmountMinor());
+        copy.setRazorpayOrderId(payment.getRazorpayOrderId());
+        copy.setRazorpayPaymentId(payment.getRazorpayPaymentId());
+        copy.setRazorpaySignature(payment.getRazorpaySignature());
+        copy.setCurrency(payment.getCurrency());
+        copy.setStatus(payment.getStatus());
+        copy.setPaymentMethod(payment.getPaymentMethod());
+        copy.setTimestamp(payment.getTimestamp());
+        return copy;
+    }
+}
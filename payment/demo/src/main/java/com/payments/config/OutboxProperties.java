@@ -0,0 +1,68 @@
+package com.payments.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.outbox")
+public class OutboxProperties {
+    private int batchSize = 100;
+    // Delay between relay polls; read directly by the @Scheduled trigger on PaymentOutboxRelay.
+    private Duration pollInterval = Duration.ofMillis(500);
+    private Duration sendTimeout = Duration.ofSeconds(10);
+    // How long a claimed batch is reserved before another relay may pick it up. Keep it above the
+    // producer's delivery.timeout.ms, so a send still in flight is never claimed and sent again.
+    private Duration lease = Duration.ofSeconds(60);
+    private Duration retention = Duration.ofDays(7);
+    private Duration cleanupInterval = Duration.ofMinutes(1);
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public Duration getSendTimeout() {
+        return sendTimeout;
+    }
+
+    public void setSendTimeout(Duration sendTimeout) {
+        this.sendTimeout = sendTimeout;
+    }
+
+    public Duration getLease() {
+        return lease;
+    }
+
+    public void setLease(Duration lease) {
+        this.lease = lease;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+
+    public Duration getCleanupInterval() {
+        return cleanupInterval;
+    }
+
+    public void setCleanupInterval(Duration cleanupInterval) {
+        this.cleanupInterval = cleanupInterval;
+    }
+}
@@ -0,0 +1,30 @@
+package com.payments.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.kafka.publisher")
+public class PublisherProperties {
+    // Records handed to the producer but not yet acknowledged; further sends wait for a slot.
+    private int maxInFlight = 1000;
+    private Duration acquireTimeout = Duration.ofSeconds(5);
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public Duration getAcquireTimeout() {
+        return acquireTimeout;
+    }
+
+    public void setAcquireTimeout(Duration acquireTimeout) {
+        this.acquireTimeout = acquireTimeout;
+    }
+}
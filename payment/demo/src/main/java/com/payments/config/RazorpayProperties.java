@@ -3,12 +3,18 @@ package com.payments.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Component
 @ConfigurationProperties(prefix = "razorpay")
 public class RazorpayProperties {
     private String keyId;
     private String keySecret;
+    // Secret being rotated out; signatures made with it are still accepted until it is removed.
+    private String previousKeySecret;
     private String currency = "INR";
+    private String baseUrl = "https://api.razorpay.com/v1";
+    private final Http http = new Http();
 
     public String getKeyId() {
         return keyId;
@@ -26,6 +32,14 @@ public class RazorpayProperties {
         this.keySecret = keySecret;
     }
 
+    public String getPreviousKeySecret() {
+        return previousKeySecret;
+    }
+
+    public void setPreviousKeySecret(String previousKeySecret) {
+        this.previousKeySecret = previousKeySecret;
+    }
+
     public String getCurrency() {
         return currency;
     }
@@ -33,4 +47,75 @@ public class RazorpayProperties {
     public void setCurrency(String currency) {
         this.currency = currency;
     }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public void setBaseUrl(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public Http getHttp() {
+        return http;
+    }
+
+    public static class Http {
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration readTimeout = Duration.ofSeconds(5);
+        // How long an idle pooled connection is kept for reuse.
+        private Duration keepAlive = Duration.ofSeconds(30);
+        private int maxConnections = 50;
+        // Concurrent calls allowed to Razorpay; callers beyond this wait up to acquireTimeout.
+        private int maxInFlight = 50;
+        private Duration acquireTimeout = Duration.ofMillis(500);
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        public Duration getKeepAlive() {
+            return keepAlive;
+        }
+
+        public void setKeepAlive(Duration keepAlive) {
+            this.keepAlive = keepAlive;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+
+        public Duration getAcquireTimeout() {
+            return acquireTimeout;
+        }
+
+        public void setAcquireTimeout(Duration acquireTimeout) {
+            this.acquireTimeout = acquireTimeout;
+        }
+    }
 }
@@ -1,34 +1,50 @@
 package com.payments.controller;
 
+import com.payments.dto.ErrorResponse;
 import com.payments.dto.PaymentRequest;
 import com.payments.dto.PaymentResponse;
+import com.payments.dto.PaymentStatusBatchRequest;
+import com.payments.dto.PaymentStatusBatchResponse;
 import com.payments.dto.RazorpayOrderCreateRequest;
 import com.payments.dto.RazorpayOrderCreateResponse;
 import com.payments.dto.RazorpayVerifyRequest;
 import com.payments.dto.RazorpayVerifyResponse;
+import com.payments.model.MinorUnits;
 import com.payments.model.Payment;
 import com.payments.service.PaymentService;
 import com.razorpay.RazorpayException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @RestController
 @RequestMapping("/api/payments")
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final int statusBatchMaxSize;
 
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService,
+                             @Value("${app.payments.status-batch-max-size:500}") int statusBatchMaxSize) {
         this.paymentService = paymentService;
+        this.statusBatchMaxSize = statusBatchMaxSize;
     }
 
     @PostMapping
     public ResponseEntity<PaymentResponse> makePayment(@RequestBody PaymentRequest request) {
-        Payment payment = new Payment(request.getOrderId(), request.getAmount(), request.getPaymentMethod());
+        Payment payment = new Payment(request.getOrderId(),
+                MinorUnits.fromMajor(request.getAmount()), request.getPaymentMethod());
         Payment result = paymentService.processPayment(payment);
         PaymentResponse response = new PaymentResponse(
                 result.getPaymentId(),
-                result.getStatus(),
+                result.getStatus().getLabel(),
                 result.getTimestamp() == null ? null : result.getTimestamp().toString()
         );
         return ResponseEntity.ok(response);
@@ -60,7 +76,7 @@ public class PaymentController {
         return paymentService.getPaymentById(paymentId)
                 .map(p -> new PaymentResponse(
                         p.getPaymentId(),
-                        p.getStatus(),
+                        p.getStatus().getLabel(),
                         p.getTimestamp() == null ? null : p.getTimestamp().toString()
                 ))
                 .map(ResponseEntity::ok)
@@ -72,13 +88,46 @@ public class PaymentController {
         return paymentService.getPaymentByOrderId(orderId)
                 .map(p -> new PaymentResponse(
                         p.getPaymentId(),
-                        p.getStatus(),
+                        p.getStatus().getLabel(),
                         p.getTimestamp() == null ? null : p.getTimestamp().toString()
                 ))
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Payment status for up to {@code app.payments.status-batch-max-size} orders in one call,
+     * served from the payment cache with a single IN query for the misses.
+     */
+    @PostMapping("/status:batch")
+    public ResponseEntity<?> getPaymentStatuses(@RequestBody PaymentStatusBatchRequest request) {
+        Set<String> orderIds = new LinkedHashSet<>();
+        if (request.getOrderIds() != null) {
+            for (String orderId : request.getOrderIds()) {
+                if (orderId != null && !orderId.isBlank()) {
+                    orderIds.add(orderId);
+                }
+            }
+        }
+        if (orderIds.size() > statusBatchMaxSize) {
+            return ResponseEntity.badRequest().body(new ErrorResponse("INVALID_REQUEST",
+                    "At most " + statusBatchMaxSize + " orderIds per request"));
+        }
+
+        Map<String, Payment> payments = orderIds.isEmpty() ? Map.of() : paymentService.getPaymentsByOrderIds(orderIds);
+        Map<String, String> statuses = new LinkedHashMap<>();
+        List<String> notFound = new ArrayList<>();
+        for (String orderId : orderIds) {
+            Payment payment = payments.get(orderId);
+            if (payment == null) {
+                notFound.add(orderId);
+            } else {
+                statuses.put(orderId, payment.getStatus().getLabel());
+            }
+        }
+        return ResponseEntity.ok(new PaymentStatusBatchResponse(statuses, notFound));
+    }
+
     @PostMapping("/refund/{orderId}")
     public ResponseEntity<PaymentResponse> refundPayment(@PathVariable String orderId) {
         Payment result = paymentService.refundPayment(orderId);
@@ -87,7 +136,7 @@ public class PaymentController {
         }
         PaymentResponse response = new PaymentResponse(
                 result.getPaymentId(),
-                result.getStatus(),
+                result.getStatus().getLabel(),
                 result.getTimestamp() == null ? null : result.getTimestamp().toString()
         );
         return ResponseEntity.ok(response);
@@ -0,0 +1,22 @@
+package com.payments.dto;
+
+import java.util.List;
+
+public class PaymentStatusBatchRequest {
+    private List<String> orderIds;
+
+    public PaymentStatusBatchRequest() {
+    }
+
+    public PaymentStatusBatchRequest(List<String> orderIds) {
+        this.orderIds = orderIds;
+    }
+
+    public List<String> getOrderIds() {
+        return orderIds;
+    }
+
+    public void setOrderIds(List<String> orderIds) {
+        this.orderIds = orderIds;
+    }
+}
@@ -0,0 +1,36 @@
+package com.payments.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Payment status per orderId, in request order, plus the orderIds that have no payment.
+ */
+public class PaymentStatusBatchResponse {
+    private Map<String, String> statuses;
+    private List<String> notFound;
+
+    public PaymentStatusBatchResponse() {
+    }
+
+    public PaymentStatusBatchResponse(Map<String, String> statuses, List<String> notFound) {
+        this.statuses = statuses;
+        this.notFound = notFound;
+    }
+
+    public Map<String, String> getStatuses() {
+        return statuses;
+    }
+
+    public void setStatuses(Map<String, String> statuses) {
+        this.statuses = statuses;
+    }
+
+    public List<String> getNotFound() {
+        return notFound;
+    }
+
+    public void setNotFound(List<String> notFound) {
+        this.notFound = notFound;
+    }
+}
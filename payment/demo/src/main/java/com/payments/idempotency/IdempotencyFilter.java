@@ -0,0 +1,203 @@
+package com.payments.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payments.config.IdempotencyProperties;
+import com.payments.dto.ErrorResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * {@code Idempotency-Key} support for the mutating payment endpoints (every POST under
+ * {@code /api/payments} except the read-only status batch). The first request with a key runs
+ * and its response is stored; later requests with the same key and body get that response back
+ * with {@code Idempotent-Replayed: true} instead of running again. A key reused with a different
+ * body gets 422, and a duplicate that arrives while the first request is still running, on this
+ * instance or another, gets 409 at once. 5xx responses are not stored, so a retry after a server
+ * error runs again. Only the {@code idempotency_records} claim decides who runs; no lock is held
+ * while the request executes.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final String PATH_PREFIX = "/api/payments";
+    private static final String READ_ONLY_PATH = "/api/payments/status:batch";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final IdempotencyProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    public IdempotencyFilter(IdempotencyStore store,
+                             IdempotencyProperties properties,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry) {
+        this.store = store;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !properties.isEnabled()
+                || !"POST".equals(request.getMethod())
+                || !path.startsWith(PATH_PREFIX)
+                || path.equals(READ_ONLY_PATH)
+                || request.getHeader(KEY_HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(KEY_HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            reject(response, HttpServletResponse.SC_BAD_REQUEST, "INVALID_REQUEST",
+                    KEY_HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters", "invalid");
+            return;
+        }
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String requestHash = requestHash(request, cachedRequest.body);
+
+        IdempotencyStore.Lookup lookup = store.begin(key, requestHash);
+        switch (lookup.outcome()) {
+            case REPLAY -> replay(response, lookup.response());
+            case MISMATCH -> reject(response, 422, "IDEMPOTENCY_KEY_REUSED",
+                    KEY_HEADER + " was already used for a different request", "mismatch");
+            case IN_PROGRESS -> {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                reject(response, HttpServletResponse.SC_CONFLICT, "IN_PROGRESS",
+                        "A request with this " + KEY_HEADER + " is still being processed", "in_progress");
+            }
+            case CLAIMED -> execute(key, requestHash, cachedRequest, response, chain);
+        }
+    }
+
+    private void execute(String key, String requestHash, CachedBodyRequest request,
+                         HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(request, wrapper);
+        } catch (ServletException | IOException | RuntimeException e) {
+            store.release(key);
+            throw e;
+        }
+        if (wrapper.getStatus() >= 500) {
+            store.release(key);
+        } else {
+            store.complete(key, requestHash, wrapper.getStatus(), wrapper.getContentType(), wrapper.getContentAsByteArray());
+        }
+        count("executed");
+        wrapper.copyBodyToResponse();
+    }
+
+    private void replay(HttpServletResponse response, IdempotencyStore.StoredResponse stored) throws IOException {
+        count("replayed");
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void reject(HttpServletResponse response, int status, String code, String message, String outcome)
+            throws IOException {
+        count(outcome);
+        byte[] body = objectMapper.writeValueAsBytes(new ErrorResponse(code, message));
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("payments.idempotency.requests", "outcome", outcome).increment();
+    }
+
+    private static String requestHash(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) ' ');
+            digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Reads the body up front so it can be hashed before the request runs, then serves it again
+     * to the controller.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // the whole body is already in memory
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+    }
+}
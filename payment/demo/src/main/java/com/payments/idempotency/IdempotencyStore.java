@@ -0,0 +1,135 @@
+package com.payments.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.payments.config.IdempotencyProperties;
+import com.payments.model.IdempotencyRecord;
+import com.payments.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.function.IntSupplier;
+
+/**
+ * Dedupe store behind {@link IdempotencyFilter}. The {@code idempotency_records} table decides
+ * which request for a key runs, on this instance or any other, and holds the response for
+ * replays; completed responses are also replayed from memory.
+ */
+@Component
+public class IdempotencyStore {
+
+    enum Outcome {
+        /** The caller owns the key and must {@link #complete} or {@link #release} it. */
+        CLAIMED,
+        /** A response is stored for the key; replay it. */
+        REPLAY,
+        /** The key was used for a different request. */
+        MISMATCH,
+        /** Another instance is running the request for this key. */
+        IN_PROGRESS
+    }
+
+    record StoredResponse(String requestHash, int status, String contentType, byte[] body) {
+    }
+
+    record Lookup(Outcome outcome, StoredResponse response) {
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private final IdempotencyRecordRepository repository;
+    private final IdempotencyProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, StoredResponse> responses;
+
+    public IdempotencyStore(IdempotencyRecordRepository repository,
+                            IdempotencyProperties properties,
+                            PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(properties.getCacheMaximumSize())
+                .expireAfterWrite(properties.getCacheTtl())
+                .build();
+    }
+
+    /**
+     * Decides what to do with a request for {@code key}. Concurrent calls for one key are safe: the
+     * claim is a single insert, so at most one of them gets {@link Outcome#CLAIMED}.
+     */
+    Lookup begin(String key, String requestHash) {
+        StoredResponse cached = responses.getIfPresent(key);
+        if (cached != null) {
+            return replayOrMismatch(cached, requestHash);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(properties.getLease());
+        if (execute(() -> repository.tryClaim(key, requestHash, now, until)) == 1) {
+            return new Lookup(Outcome.CLAIMED, null);
+        }
+
+        IdempotencyRecord record = repository.findById(key).orElse(null);
+        if (record == null) {
+            // released between our insert and read; the client's retry will claim it
+            return new Lookup(Outcome.IN_PROGRESS, null);
+        }
+        if (!requestHash.equals(record.getRequestHash())) {
+            return new Lookup(Outcome.MISMATCH, null);
+        }
+        if (IdempotencyRecord.COMPLETED.equals(record.getState())) {
+            StoredResponse stored = new StoredResponse(record.getRequestHash(), record.getResponseStatus(),
+                    record.getContentType(), record.getResponseBody() == null ? new byte[0] : record.getResponseBody());
+            responses.put(key, stored);
+            return new Lookup(Outcome.REPLAY, stored);
+        }
+        if (execute(() -> repository.takeOver(key, until, now)) == 1) {
+            log.warn("Took over idempotency key {} after its lease expired", key);
+            return new Lookup(Outcome.CLAIMED, null);
+        }
+        return new Lookup(Outcome.IN_PROGRESS, null);
+    }
+
+    void complete(String key, String requestHash, int status, String contentType, byte[] body) {
+        execute(() -> repository.complete(key, status, contentType, body));
+        responses.put(key, new StoredResponse(requestHash, status, contentType, body));
+    }
+
+    /**
+     * Gives a claimed key back without a stored response, so a retry runs the request again.
+     */
+    void release(String key) {
+        try {
+            execute(() -> repository.release(key));
+        } catch (RuntimeException e) {
+            // the lease still expires, after which a retry takes the key over
+            log.warn("Could not release idempotency key {}: {}", key, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval:10m}")
+    public void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getRetention());
+        int deleted = execute(() -> repository.deleteCreatedBefore(cutoff));
+        if (deleted > 0) {
+            log.info("Purged {} idempotency records older than {}", deleted, cutoff);
+        }
+    }
+
+    private static Lookup replayOrMismatch(StoredResponse stored, String requestHash) {
+        return stored.requestHash().equals(requestHash)
+                ? new Lookup(Outcome.REPLAY, stored)
+                : new Lookup(Outcome.MISMATCH, null);
+    }
+
+    private int execute(IntSupplier update) {
+        Integer count = transactionTemplate.execute(status -> update.getAsInt());
+        return count == null ? 0 : count;
+    }
+}
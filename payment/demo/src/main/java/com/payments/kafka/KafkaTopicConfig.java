@@ -9,8 +9,27 @@ import org.springframework.kafka.config.TopicBuilder;
 @Configuration
 public class KafkaTopicConfig {
 
+    /**
+     * Events are keyed by orderId, so each order stays on one partition and keeps its ordering
+     * however many partitions there are. On startup KafkaAdmin creates the topic, or adds
+     * partitions to an existing one when this count is higher; Kafka cannot shrink a topic, so
+     * lowering the value only logs an error.
+     */
     @Bean
-    public NewTopic paymentStatusTopic(@Value("${app.kafka.payment-status-topic}") String topicName) {
-        return TopicBuilder.name(topicName).partitions(1).replicas(1).build();
+    public NewTopic paymentStatusTopic(@Value("${app.kafka.payment-status-topic}") String topicName,
+                                       @Value("${app.kafka.payment-status-partitions:6}") int partitions,
+                                       @Value("${app.kafka.payment-status-replicas:1}") short replicas) {
+        return TopicBuilder.name(topicName).partitions(partitions).replicas(replicas).build();
+    }
+
+    /**
+     * Refund commands from the order service, also keyed by orderId. Payment owns the topic as
+     * the consumer of the commands.
+     */
+    @Bean
+    public NewTopic refundCommandTopic(@Value("${app.kafka.refund-command-topic}") String topicName,
+                                       @Value("${app.kafka.payment-status-partitions:6}") int partitions,
+                                       @Value("${app.kafka.payment-status-replicas:1}") short replicas) {
+        return TopicBuilder.name(topicName).partitions(partitions).replicas(replicas).build();
     }
 }
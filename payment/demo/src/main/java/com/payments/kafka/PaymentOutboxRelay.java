@@ -0,0 +1,149 @@
+package com.payments.kafka;
+
+import com.payments.config.OutboxProperties;
+import com.payments.model.OutboxEvent;
+import com.payments.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the payment outbox to Kafka in batches.
+ *
+ * Each poll claims a batch with a short transaction, sends it with no transaction or connection
+ * held, then marks the acknowledged rows published in a second short transaction. A batch holds
+ * at most one event per order: the claim only takes an order's oldest unpublished event, so its
+ * next event is not claimed, by this or any other instance, until that one is published. Events
+ * of different orders go out concurrently. A failed send is released for a later poll; a send
+ * still in flight at {@code app.outbox.send-timeout} keeps its lease and its row is settled when
+ * the broker answers, so it is never sent a second time while the first may still arrive.
+ */
+@Component
+public class PaymentOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentOutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final PaymentStatusPublisher paymentStatusPublisher;
+    private final OutboxProperties outboxProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    public PaymentOutboxRelay(OutboxEventRepository outboxEventRepository,
+                              PaymentStatusPublisher paymentStatusPublisher,
+                              OutboxProperties outboxProperties,
+                              TransactionTemplate transactionTemplate) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.paymentStatusPublisher = paymentStatusPublisher;
+        this.outboxProperties = outboxProperties;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval:500ms}")
+    public void relay() {
+        // Keep draining while full batches go out cleanly so a backlog clears without waiting a poll
+        // interval each time; any failure falls back to the normal poll cadence.
+        int published;
+        do {
+            published = relayBatch();
+        } while (published == outboxProperties.getBatchSize());
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.cleanup-interval:1m}")
+    public void purgePublished() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(outboxProperties.getRetention());
+        Integer deleted = transactionTemplate.execute(status -> outboxEventRepository.deletePublishedBefore(cutoff));
+        if (deleted != null && deleted > 0) {
+            log.info("Purged {} published outbox events older than {}", deleted, cutoff);
+        }
+    }
+
+    /**
+     * Relays one claimed batch and returns how many events were published.
+     */
+    int relayBatch() {
+        String token = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        Integer claimed = transactionTemplate.execute(status -> {
+            List<Long> ids = outboxEventRepository.findClaimableIds(now, outboxProperties.getBatchSize());
+            return ids.isEmpty() ? 0 : outboxEventRepository.claim(ids, token, now.plus(outboxProperties.getLease()), now);
+        });
+        if (claimed == null || claimed == 0) {
+            return 0;
+        }
+
+        List<OutboxEvent> batch = outboxEventRepository.findByClaimTokenOrderByIdAsc(token);
+        List<CompletableFuture<SendResult<String, byte[]>>> sends = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            sends.add(paymentStatusPublisher.send(event));
+        }
+        awaitQuietly(sends, outboxProperties.getSendTimeout().toNanos());
+
+        List<Long> published = new ArrayList<>();
+        List<Long> failed = new ArrayList<>();
+        int inFlight = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Long id = batch.get(i).getId();
+            CompletableFuture<SendResult<String, byte[]>> send = sends.get(i);
+            if (!send.isDone()) {
+                inFlight++;
+                // off the producer's I/O thread, which must not wait on the database
+                send.whenCompleteAsync((result, failure) -> settleLate(id, token, failure));
+            } else if (send.isCompletedExceptionally()) {
+                failed.add(id);
+            } else {
+                published.add(id);
+            }
+        }
+
+        settle(published, failed, token);
+        if (!failed.isEmpty() || inFlight > 0) {
+            log.warn("Outbox relay could not publish {} of {} payment status events and is still waiting on {}; "
+                    + "failed events will be retried", failed.size(), batch.size(), inFlight);
+        }
+        return published.size();
+    }
+
+    private void settle(List<Long> published, List<Long> failed, String token) {
+        if (published.isEmpty() && failed.isEmpty()) {
+            return;
+        }
+        LocalDateTime publishedAt = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!published.isEmpty()) {
+                outboxEventRepository.markPublished(published, publishedAt);
+            }
+            if (!failed.isEmpty()) {
+                outboxEventRepository.release(failed, token);
+            }
+        });
+    }
+
+    private void settleLate(Long id, String token, Throwable failure) {
+        try {
+            settle(failure == null ? List.of(id) : List.of(), failure == null ? List.of() : List.of(id), token);
+        } catch (RuntimeException e) {
+            // the row keeps its lease; once that runs out a later poll sends it again
+            log.warn("Could not record the late outcome of outbox event {}: {}", id, e.getMessage());
+        }
+    }
+
+    private static void awaitQuietly(List<CompletableFuture<SendResult<String, byte[]>>> sends, long timeoutNanos) {
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // individual failures and timeouts are inspected per future by the caller
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.payments.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payments.events.PaymentStatusEvent;
+import com.payments.events.PaymentStatusEventCodec;
+
+/**
+ * Encodes payment status events for the outbox. Writes the compact binary format by default, or
+ * JSON when configured with {@code json}; the relay sends {@link #contentType()} as the
+ * {@code content-type} header so the consumer knows which one it got.
+ */
+final class PaymentStatusEventEncoder {
+
+    private final ObjectMapper objectMapper;
+    private final boolean json;
+
+    PaymentStatusEventEncoder(ObjectMapper objectMapper, String format) {
+        this.objectMapper = objectMapper;
+        this.json = "json".equalsIgnoreCase(format);
+    }
+
+    String contentType() {
+        return json ? PaymentStatusEventCodec.JSON_CONTENT_TYPE : PaymentStatusEventCodec.BINARY_CONTENT_TYPE;
+    }
+
+    byte[] encode(PaymentStatusEvent event) {
+        if (!json) {
+            return PaymentStatusEventCodec.encode(event);
+        }
+        try {
+            return objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize payment status event for orderId=" + event.getOrderId(), e);
+        }
+    }
+}
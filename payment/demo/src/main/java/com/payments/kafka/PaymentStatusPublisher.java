@@ -1,41 +1,202 @@
 package com.payments.kafka;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payments.config.PublisherProperties;
 import com.payments.events.PaymentStatusEvent;
+import com.payments.events.PaymentStatusEventCodec;
+import com.payments.model.OutboxEvent;
+import com.payments.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Headers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
 @Component
 public class PaymentStatusPublisher {
 
     private static final Logger log = LoggerFactory.getLogger(PaymentStatusPublisher.class);
+    private static final String TRACE_PARENT = "traceparent";
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
-    private final ObjectMapper objectMapper;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final PaymentStatusEventEncoder encoder;
+    private final OutboxEventRepository outboxEventRepository;
     private final String topicName;
+    private final Semaphore inFlight;
+    private final long acquireTimeoutMillis;
+    private final Timer sendSuccess;
+    private final Timer sendFailure;
+    private final Counter sendRejected;
+    private final Timer publishDelay;
+    private final Tracer tracer;
+    private final Propagator propagator;
 
     public PaymentStatusPublisher(
-            KafkaTemplate<String, String> kafkaTemplate,
+            KafkaTemplate<String, byte[]> kafkaTemplate,
             ObjectMapper objectMapper,
-            @Value("${app.kafka.payment-status-topic}") String topicName
+            OutboxEventRepository outboxEventRepository,
+            PublisherProperties publisherProperties,
+            MeterRegistry meterRegistry,
+            Tracer tracer,
+            Propagator propagator,
+            @Value("${app.kafka.payment-status-topic}") String topicName,
+            @Value("${app.kafka.payment-status-format:binary}") String format
     ) {
         this.kafkaTemplate = kafkaTemplate;
-        this.objectMapper = objectMapper;
+        this.encoder = new PaymentStatusEventEncoder(objectMapper, format);
+        this.outboxEventRepository = outboxEventRepository;
         this.topicName = topicName;
+        this.tracer = tracer;
+        this.propagator = propagator;
+        this.inFlight = new Semaphore(publisherProperties.getMaxInFlight());
+        this.acquireTimeoutMillis = publisherProperties.getAcquireTimeout().toMillis();
+        this.sendSuccess = Timer.builder("payment.status.send")
+                .description("Time from handing a payment status event to the producer until the broker acknowledged it")
+                .tag("topic", topicName)
+                .tag("outcome", "success")
+                .register(meterRegistry);
+        this.sendFailure = Timer.builder("payment.status.send")
+                .description("Time from handing a payment status event to the producer until the broker acknowledged it")
+                .tag("topic", topicName)
+                .tag("outcome", "failure")
+                .register(meterRegistry);
+        this.sendRejected = Counter.builder("payment.status.send.rejected")
+                .description("Payment status events not sent because the in-flight buffer stayed full")
+                .tag("topic", topicName)
+                .register(meterRegistry);
+        this.publishDelay = Timer.builder("payment.status.publish.delay")
+                .description("Time from recording a payment status event in the outbox until the broker acknowledged it")
+                .tag("topic", topicName)
+                .register(meterRegistry);
+        Gauge.builder("payment.status.send.in-flight", inFlight,
+                        semaphore -> publisherProperties.getMaxInFlight() - semaphore.availablePermits())
+                .description("Payment status events awaiting broker acknowledgement")
+                .tag("topic", topicName)
+                .register(meterRegistry);
     }
 
+    /**
+     * Records the event in the outbox as part of the caller's transaction. It reaches Kafka once
+     * that transaction commits and {@link PaymentOutboxRelay} picks it up, so a rollback never
+     * leaks an event and a commit never loses one. The current trace context is stored with the
+     * row so the send continues the caller's trace.
+     */
     public void publish(PaymentStatusEvent event) {
+        byte[] payload = encoder.encode(event);
+        OutboxEvent outboxEvent = new OutboxEvent(topicName, event.getOrderId(), payload, encoder.contentType());
+        outboxEvent.setTraceParent(currentTraceParent());
+        outboxEventRepository.save(outboxEvent);
+        log.info("Queued payment status event: orderId={}, status={}, topic={}",
+                event.getOrderId(), event.getStatus(), topicName);
+    }
+
+    /**
+     * Hands an outbox row to the producer without waiting for the broker. At most
+     * {@code app.kafka.publisher.max-in-flight} records are outstanding; beyond that the caller
+     * waits for acknowledgements, and gets a failed future if none arrive within the acquire
+     * timeout, so a slow broker pushes back on the relay instead of piling up in memory.
+     */
+    CompletableFuture<SendResult<String, byte[]>> send(OutboxEvent outboxEvent) {
+        if (!acquire()) {
+            sendRejected.increment();
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("Payment status publisher has too many unacknowledged events"));
+        }
+        long start = System.nanoTime();
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(
+                outboxEvent.getTopic(), outboxEvent.getMessageKey(), outboxEvent.getPayload());
+        record.headers().add(PaymentStatusEventCodec.CONTENT_TYPE_HEADER,
+                outboxEvent.getContentType().getBytes(StandardCharsets.UTF_8));
+        Span span = startSendSpan(outboxEvent);
+        if (span != null) {
+            propagator.inject(span.context(), record.headers(),
+                    (Headers headers, String key, String value) -> headers.add(key, value.getBytes(StandardCharsets.UTF_8)));
+        }
+        CompletableFuture<SendResult<String, byte[]>> future;
+        try {
+            future = kafkaTemplate.send(record);
+        } catch (RuntimeException e) {
+            inFlight.release();
+            sendFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            endSpan(span, e);
+            return CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((result, failure) -> {
+            inFlight.release();
+            endSpan(span, failure);
+            long elapsed = System.nanoTime() - start;
+            if (failure == null) {
+                sendSuccess.record(elapsed, TimeUnit.NANOSECONDS);
+                if (outboxEvent.getCreatedAt() != null) {
+                    publishDelay.record(Duration.between(outboxEvent.getCreatedAt(), LocalDateTime.now()));
+                }
+            } else {
+                sendFailure.record(elapsed, TimeUnit.NANOSECONDS);
+                log.warn("Failed to publish payment status event: orderId={}, outboxId={}",
+                        outboxEvent.getMessageKey(), outboxEvent.getId(), failure);
+            }
+        });
+    }
+
+    private String currentTraceParent() {
+        Span span = tracer.currentSpan();
+        if (span == null) {
+            return null;
+        }
+        Map<String, String> carrier = new HashMap<>();
+        propagator.inject(span.context(), carrier, Map::put);
+        return carrier.get(TRACE_PARENT);
+    }
+
+    // A producer span in the trace stored with the row; rows written outside a trace get none.
+    private Span startSendSpan(OutboxEvent outboxEvent) {
+        if (outboxEvent.getTraceParent() == null) {
+            return null;
+        }
+        return propagator.extract(Map.of(TRACE_PARENT, outboxEvent.getTraceParent()), Map::get)
+                .name(outboxEvent.getTopic() + " send")
+                .kind(Span.Kind.PRODUCER)
+                .tag("messaging.system", "kafka")
+                .tag("messaging.destination.name", outboxEvent.getTopic())
+                .tag("messaging.kafka.message.key", outboxEvent.getMessageKey())
+                .start();
+    }
+
+    private static void endSpan(Span span, Throwable failure) {
+        if (span == null) {
+            return;
+        }
+        if (failure != null) {
+            span.error(failure);
+        }
+        span.end();
+    }
+
+    private boolean acquire() {
         try {
-            String payload = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send(topicName, event.getOrderId(), payload);
-            log.info("Published payment status event: orderId={}, status={}, topic={}",
-                    event.getOrderId(), event.getStatus(), topicName);
-        } catch (JsonProcessingException e) {
-            log.error("Failed to serialize payment status event for orderId={}", event.getOrderId(), e);
+            return inFlight.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         }
     }
 }
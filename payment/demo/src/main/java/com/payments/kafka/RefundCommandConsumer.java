@@ -0,0 +1,47 @@
+package com.payments.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payments.events.RefundCommand;
+import com.payments.service.PaymentService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Payment side of the order cancellation saga: executes refund commands from the order service.
+ * The result is published on the payment-status topic by {@link PaymentService#handleRefundRequest}.
+ */
+@Component
+public class RefundCommandConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(RefundCommandConsumer.class);
+
+    private final PaymentService paymentService;
+    private final ObjectMapper objectMapper;
+
+    public RefundCommandConsumer(PaymentService paymentService, ObjectMapper objectMapper) {
+        this.paymentService = paymentService;
+        this.objectMapper = objectMapper;
+    }
+
+    @KafkaListener(topics = "${app.kafka.refund-command-topic}")
+    public void consume(ConsumerRecord<String, String> record) {
+        RefundCommand command;
+        try {
+            command = objectMapper.readValue(record.value(), RefundCommand.class);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            log.error("Skipping undecodable refund command: partition={}, offset={}", record.partition(), record.offset(), e);
+            return;
+        }
+        if (command.getOrderId() == null || command.getOrderId().isBlank()) {
+            log.warn("Skipping refund command without orderId: partition={}, offset={}", record.partition(), record.offset());
+            return;
+        }
+        // failures propagate so the container's error handler retries before giving up; the
+        // order service re-sends the command for cancellations that stay pending
+        paymentService.handleRefundRequest(command.getOrderId());
+    }
+}
@@ -0,0 +1,59 @@
+package com.payments.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a mutating request sent with an {@code Idempotency-Key} header, shared by all
+ * payment instances. A row is IN_PROGRESS while the first request runs, holding a lease until
+ * {@code lockedUntil}, and COMPLETED with the response to replay afterwards.
+ */
+@Entity
+@Table(name = "idempotency_records", indexes = @Index(name = "idx_idempotency_records_created_at", columnList = "created_at"))
+public class IdempotencyRecord {
+
+    public static final String IN_PROGRESS = "IN_PROGRESS";
+    public static final String COMPLETED = "COMPLETED";
+
+    @Id
+    @Column(length = 255)
+    private String idempotencyKey;
+    // SHA-256 of method, path and body; a key reused for a different request is rejected.
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+    @Column(nullable = false, length = 16)
+    private String state;
+    private Integer responseStatus;
+    private String contentType;
+    @Lob
+    private byte[] responseBody;
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    private LocalDateTime lockedUntil;
+
+    public IdempotencyRecord() {}
+
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+
+    public String getRequestHash() { return requestHash; }
+    public void setRequestHash(String requestHash) { this.requestHash = requestHash; }
+
+    public String getState() { return state; }
+    public void setState(String state) { this.state = state; }
+
+    public Integer getResponseStatus() { return responseStatus; }
+    public void setResponseStatus(Integer responseStatus) { this.responseStatus = responseStatus; }
+
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+
+    public byte[] getResponseBody() { return responseBody; }
+    public void setResponseBody(byte[] responseBody) { this.responseBody = responseBody; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getLockedUntil() { return lockedUntil; }
+    public void setLockedUntil(LocalDateTime lockedUntil) { this.lockedUntil = lockedUntil; }
+}
@@ -0,0 +1,80 @@
+package com.payments.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Payment status event waiting to be relayed to Kafka. Rows are written in the same transaction
+ * as the {@link Payment} change they describe and drained by the outbox relay.
+ */
+@Entity
+@Table(name = "payment_outbox")
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String topic;
+    // Kafka record key; the orderId, so events for one order stay on one partition.
+    @Column(nullable = false)
+    private String messageKey;
+    // Encoded record value exactly as it goes on the wire, and its content-type header.
+    @Lob
+    @Column(nullable = false)
+    private byte[] payload;
+    @Column(nullable = false)
+    private String contentType;
+    // traceparent of the request that wrote the row; the relay's send continues that trace.
+    private String traceParent;
+    private LocalDateTime createdAt;
+    private LocalDateTime publishedAt;
+    // Lease taken by a relay poll so concurrent instances do not send the same row.
+    private String claimToken;
+    private LocalDateTime claimedUntil;
+    private int attempts;
+
+    public OutboxEvent() {}
+
+    public OutboxEvent(String topic, String messageKey, byte[] payload, String contentType) {
+        this.topic = topic;
+        this.messageKey = messageKey;
+        this.payload = payload;
+        this.contentType = contentType;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getTopic() { return topic; }
+    public void setTopic(String topic) { this.topic = topic; }
+
+    public String getMessageKey() { return messageKey; }
+    public void setMessageKey(String messageKey) { this.messageKey = messageKey; }
+
+    public byte[] getPayload() { return payload; }
+    public void setPayload(byte[] payload) { this.payload = payload; }
+
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+
+    public String getTraceParent() { return traceParent; }
+    public void setTraceParent(String traceParent) { this.traceParent = traceParent; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getPublishedAt() { return publishedAt; }
+    public void setPublishedAt(LocalDateTime publishedAt) { this.publishedAt = publishedAt; }
+
+    public String getClaimToken() { return claimToken; }
+    public void setClaimToken(String claimToken) { this.claimToken = claimToken; }
+
+    public LocalDateTime getClaimedUntil() { return claimedUntil; }
+    public void setClaimedUntil(LocalDateTime claimedUntil) { this.claimedUntil = claimedUntil; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+}
@@ -4,7 +4,11 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+        // created by the Flyway migrations; listed here for reference
+        @Index(name = "idx_payments_status_timestamp", columnList = "status, timestamp"),
+        @Index(name = "idx_payments_timestamp", columnList = "timestamp")
+})
 public class Payment {
 
     @Id
@@ -13,25 +17,26 @@ public class Payment {
 
     @Column(nullable = false, unique = true)
     private String orderId;
-    private Double amount;
+    // In paise; see MinorUnits.
+    private Long amountMinor;
     @Column(unique = true)
     private String razorpayOrderId;
     private String razorpayPaymentId;
     private String razorpaySignature;
     private String currency;
-    // Possible values: CREATED, Pending, Success, Failed, REFUND_PENDING, REFUNDED, REFUND_FAILED
-    private String status; 
+    // Changed only through PaymentRepository.transition once the row exists; see PaymentStatus.
+    private PaymentStatus status;
     private String paymentMethod; 
     private LocalDateTime timestamp;
 
     
     public Payment() {}
 
-    public Payment(String orderId, Double amount, String paymentMethod) {
+    public Payment(String orderId, Long amountMinor, String paymentMethod) {
         this.orderId = orderId;
-        this.amount = amount;
+        this.amountMinor = amountMinor;
         this.paymentMethod = paymentMethod;
-        this.status = "Pending";
+        this.status = PaymentStatus.PENDING;
         this.timestamp = LocalDateTime.now();
     }
 
@@ -42,8 +47,8 @@ public class Payment {
     public String getOrderId() { return orderId; }
     public void setOrderId(String orderId) { this.orderId = orderId; }
 
-    public Double getAmount() { return amount; }
-    public void setAmount(Double amount) { this.amount = amount; }
+    public Long getAmountMinor() { return amountMinor; }
+    public void setAmountMinor(Long amountMinor) { this.amountMinor = amountMinor; }
 
     public String getRazorpayOrderId() { return razorpayOrderId; }
     public void setRazorpayOrderId(String razorpayOrderId) { this.razorpayOrderId = razorpayOrderId; }
@@ -57,8 +62,8 @@ public class Payment {
     public String getCurrency() { return currency; }
     public void setCurrency(String currency) { this.currency = currency; }
 
-    public String getStatus() { return status; }
-    public void setStatus(String status) { this.status = status; }
+    public PaymentStatus getStatus() { return status; }
+    public void setStatus(PaymentStatus status) { this.status = status; }
 
     public String getPaymentMethod() { return paymentMethod; }
     public void setPaymentMethod(String paymentMethod) { this.paymentMethod = paymentMethod; }
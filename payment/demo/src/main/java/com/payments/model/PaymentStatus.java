@@ -0,0 +1,82 @@
+package com.payments.model;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lifecycle of a {@link Payment}. Each status lists the statuses it may move to; writers apply a
+ * transition with a conditional UPDATE on the current status (see
+ * {@code PaymentRepository#transition}), so concurrent requests cannot overwrite each other and
+ * a late request can never move a payment backwards, e.g. a stale invalid verification after a
+ * successful one.
+ *
+ * {@link #getLabel()} is the value stored in the database and returned by the API, unchanged from
+ * when status was a free-form string.
+ */
+public enum PaymentStatus {
+
+    PENDING("Pending"),
+    CREATED("CREATED"),
+    SUCCESS("Success"),
+    FAILED("Failed"),
+    REFUND_PENDING("REFUND_PENDING"),
+    REFUNDED("REFUNDED"),
+    REFUND_FAILED("REFUND_FAILED");
+
+    private static final Map<PaymentStatus, Set<PaymentStatus>> NEXT = new EnumMap<>(PaymentStatus.class);
+    private static final Map<PaymentStatus, Set<PaymentStatus>> PREVIOUS = new EnumMap<>(PaymentStatus.class);
+
+    static {
+        allow(PENDING, CREATED, SUCCESS, FAILED);
+        allow(CREATED, SUCCESS, FAILED);
+        // a failed attempt may be retried with a new Razorpay order or a valid signature
+        allow(FAILED, CREATED, SUCCESS);
+        allow(SUCCESS, REFUND_PENDING);
+        allow(REFUND_PENDING, REFUNDED, REFUND_FAILED);
+        allow(REFUNDED);
+        allow(REFUND_FAILED);
+    }
+
+    private final String label;
+
+    PaymentStatus(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public boolean canTransitionTo(PaymentStatus next) {
+        return NEXT.get(this).contains(next);
+    }
+
+    /**
+     * Statuses from which a payment may move to {@code this}; the WHERE clause of a transition.
+     */
+    public Set<PaymentStatus> allowedFrom() {
+        return PREVIOUS.get(this);
+    }
+
+    public static PaymentStatus fromLabel(String label) {
+        for (PaymentStatus status : values()) {
+            if (status.label.equalsIgnoreCase(label)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown payment status: " + label);
+    }
+
+    private static void allow(PaymentStatus from, PaymentStatus... to) {
+        Set<PaymentStatus> next = EnumSet.noneOf(PaymentStatus.class);
+        Collections.addAll(next, to);
+        NEXT.put(from, Collections.unmodifiableSet(next));
+        for (PaymentStatus target : to) {
+            PREVIOUS.computeIfAbsent(target, t -> EnumSet.noneOf(PaymentStatus.class)).add(from);
+        }
+        PREVIOUS.putIfAbsent(from, EnumSet.noneOf(PaymentStatus.class));
+    }
+}
@@ -0,0 +1,21 @@
+package com.payments.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores {@link PaymentStatus} as its label, so rows written before the enum existed still load.
+ */
+@Converter(autoApply = true)
+public class PaymentStatusConverter implements AttributeConverter<PaymentStatus, String> {
+
+    @Override
+    public String convertToDatabaseColumn(PaymentStatus status) {
+        return status == null ? null : status.getLabel();
+    }
+
+    @Override
+    public PaymentStatus convertToEntityAttribute(String label) {
+        return label == null ? null : PaymentStatus.fromLabel(label);
+    }
+}
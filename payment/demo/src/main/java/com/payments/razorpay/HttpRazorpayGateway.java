@@ -0,0 +1,170 @@
+package com.payments.razorpay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.payments.config.RazorpayProperties;
+import com.razorpay.RazorpayException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.ObservationRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Razorpay REST client backed by one pooled Apache HttpClient for the lifetime of the service,
+ * so TLS connections to the gateway are kept alive and reused across requests. The official
+ * SDK rebuilds its HTTP client on every {@code new RazorpayClient(...)} and cannot be tuned,
+ * which is why the few endpoints we use are called directly.
+ *
+ * <p>Every call is timed as {@code razorpay.requests}, tagged with the operation, the outcome and
+ * the Razorpay error code ({@code BAD_REQUEST_ERROR}, {@code GATEWAY_ERROR}, ...) or HTTP status
+ * when it failed.
+ */
+@Component
+public class HttpRazorpayGateway implements RazorpayGateway, DisposableBean {
+
+    private final RazorpayProperties razorpayProperties;
+    private final CloseableHttpClient httpClient;
+    private final RestClient restClient;
+    private final Semaphore inFlight;
+    private final long acquireTimeoutMillis;
+    private final MeterRegistry meterRegistry;
+
+    public HttpRazorpayGateway(RazorpayProperties razorpayProperties, MeterRegistry meterRegistry,
+                               ObservationRegistry observationRegistry) {
+        RazorpayProperties.Http http = razorpayProperties.getHttp();
+        this.razorpayProperties = razorpayProperties;
+        this.httpClient = buildHttpClient(http);
+        this.restClient = RestClient.builder()
+                .baseUrl(razorpayProperties.getBaseUrl())
+                .requestFactory(new HttpComponentsClientHttpRequestFactory(httpClient))
+                .observationRegistry(observationRegistry)
+                .build();
+        this.inFlight = new Semaphore(http.getMaxInFlight());
+        this.acquireTimeoutMillis = http.getAcquireTimeout().toMillis();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public String createOrder(long amountInPaise, String currency, String receipt) throws RazorpayException {
+        acquire("create_order");
+        long start = System.nanoTime();
+        String outcome = "success";
+        String error = "none";
+        try {
+            JsonNode body = restClient.post()
+                    .uri("/orders")
+                    .headers(headers -> headers.setBasicAuth(razorpayProperties.getKeyId(), razorpayProperties.getKeySecret()))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("amount", amountInPaise, "currency", currency, "receipt", receipt))
+                    .retrieve()
+                    .body(JsonNode.class);
+            String razorpayOrderId = body == null ? null : body.path("id").asText(null);
+            if (razorpayOrderId == null) {
+                outcome = "invalid_response";
+                throw new RazorpayException("Razorpay order response did not contain an id");
+            }
+            return razorpayOrderId;
+        } catch (RestClientResponseException e) {
+            JsonNode errorBody = errorBody(e);
+            outcome = e.getStatusCode().is4xxClientError() ? "client_error" : "server_error";
+            error = errorCode(e, errorBody);
+            throw new RazorpayException(describe(e, errorBody), e);
+        } catch (ResourceAccessException e) {
+            outcome = "unreachable";
+            throw new RazorpayException("Razorpay is unreachable: " + e.getMessage(), e);
+        } finally {
+            inFlight.release();
+            record("create_order", outcome, error, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        httpClient.close();
+    }
+
+    private void acquire(String operation) throws RazorpayException {
+        try {
+            if (!inFlight.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                record(operation, "rejected", "none", 0);
+                throw new RazorpayException("Too many concurrent Razorpay calls, try again shortly");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RazorpayException("Interrupted while waiting for a Razorpay connection", e);
+        }
+    }
+
+    private void record(String operation, String outcome, String error, long elapsedNanos) {
+        Timer.builder("razorpay.requests")
+                .description("Razorpay API calls, including calls rejected before they were sent")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .tag("error", error)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static JsonNode errorBody(RestClientResponseException e) {
+        try {
+            JsonNode body = e.getResponseBodyAs(JsonNode.class);
+            return body == null ? null : body.get("error");
+        } catch (RuntimeException ignored) {
+            // non-JSON error body, fall back to the status line
+            return null;
+        }
+    }
+
+    // Razorpay's error codes are a short fixed list, so they are safe to use as a metric tag.
+    private static String errorCode(RestClientResponseException e, JsonNode error) {
+        String code = error == null ? null : error.path("code").asText(null);
+        return code == null ? "HTTP_" + e.getStatusCode().value() : code;
+    }
+
+    // Mirrors the SDK's "CODE:description" message format so callers see the same errors as before.
+    private static String describe(RestClientResponseException e, JsonNode error) {
+        if (error == null) {
+            return "Razorpay returned " + e.getStatusCode().value();
+        }
+        return error.path("code").asText("UNKNOWN_ERROR") + ":" + error.path("description").asText("");
+    }
+
+    private static CloseableHttpClient buildHttpClient(RazorpayProperties.Http http) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(http.getMaxConnections())
+                .setMaxConnPerRoute(http.getMaxConnections())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(http.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(http.getReadTimeout()))
+                        .build())
+                .build();
+        TimeValue keepAlive = TimeValue.of(http.getKeepAlive());
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy((response, context) -> keepAlive)
+                .evictIdleConnections(keepAlive)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(http.getAcquireTimeout()))
+                        .setResponseTimeout(Timeout.of(http.getReadTimeout()))
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,15 @@
+package com.payments.razorpay;
+
+import com.razorpay.RazorpayException;
+
+/**
+ * Outbound calls to Razorpay. Implementations are shared singletons; swap the bean (or point
+ * {@code razorpay.base-url} at a local stub) to run without the real gateway.
+ */
+public interface RazorpayGateway {
+
+    /**
+     * Creates a Razorpay order and returns its id ({@code order_...}).
+     */
+    String createOrder(long amountInPaise, String currency, String receipt) throws RazorpayException;
+}
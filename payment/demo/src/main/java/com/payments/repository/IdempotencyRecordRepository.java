@@ -0,0 +1,50 @@
+package com.payments.repository;
+
+import com.payments.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Inserts an IN_PROGRESS row for the key; returns 0 when any row for the key already exists.
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO idempotency_records (idempotency_key, request_hash, state, created_at, locked_until) "
+            + "VALUES (:key, :hash, 'IN_PROGRESS', :now, :until)", nativeQuery = true)
+    int tryClaim(@Param("key") String key,
+                 @Param("hash") String hash,
+                 @Param("now") LocalDateTime now,
+                 @Param("until") LocalDateTime until);
+
+    /**
+     * Takes over an IN_PROGRESS row whose lease has run out, e.g. after its instance died.
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.lockedUntil = :until "
+            + "WHERE r.idempotencyKey = :key AND r.state = 'IN_PROGRESS' AND r.lockedUntil < :now")
+    int takeOver(@Param("key") String key, @Param("until") LocalDateTime until, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.state = 'COMPLETED', r.responseStatus = :status, "
+            + "r.contentType = :contentType, r.responseBody = :body, r.lockedUntil = null "
+            + "WHERE r.idempotencyKey = :key")
+    int complete(@Param("key") String key,
+                 @Param("status") int status,
+                 @Param("contentType") String contentType,
+                 @Param("body") byte[] body);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.state = 'IN_PROGRESS'")
+    int release(@Param("key") String key);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,53 @@
+package com.payments.repository;
+
+import com.payments.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Unpublished rows nobody holds a lease on, oldest first, skipping any row whose key has an
+     * older unpublished row: an order's next event becomes claimable only once the one before it
+     * is published, so relays on different instances never send an order's events out of order.
+     */
+    @Query(value = "SELECT o.id FROM payment_outbox o "
+            + "WHERE o.published_at IS NULL AND (o.claimed_until IS NULL OR o.claimed_until < :now) "
+            + "AND NOT EXISTS (SELECT 1 FROM payment_outbox older WHERE older.message_key = o.message_key "
+            + "AND older.published_at IS NULL AND older.id < o.id) "
+            + "ORDER BY o.id LIMIT :limit FOR UPDATE OF o SKIP LOCKED", nativeQuery = true)
+    List<Long> findClaimableIds(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.claimToken = :token, e.claimedUntil = :until "
+            + "WHERE e.id IN :ids AND e.publishedAt IS NULL AND (e.claimedUntil IS NULL OR e.claimedUntil < :now)")
+    int claim(@Param("ids") Collection<Long> ids,
+              @Param("token") String token,
+              @Param("until") LocalDateTime until,
+              @Param("now") LocalDateTime now);
+
+    List<OutboxEvent> findByClaimTokenOrderByIdAsc(String claimToken);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.publishedAt = :publishedAt, e.claimToken = null, e.claimedUntil = null "
+            + "WHERE e.id IN :ids")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("publishedAt") LocalDateTime publishedAt);
+
+    /** Gives rows back for a later poll, unless another relay has claimed them since. */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.claimToken = null, e.claimedUntil = null "
+            + "WHERE e.id IN :ids AND e.claimToken = :token")
+    int release(@Param("ids") Collection<Long> ids, @Param("token") String token);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < :cutoff")
+    int deletePublishedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,12 +1,65 @@
 package com.payments.repository;
 import com.payments.model.Payment;
+import com.payments.model.PaymentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Optional<Payment> findByOrderId(String orderId);
     Optional<Payment> findByRazorpayOrderId(String razorpayOrderId);
+    List<Payment> findByOrderIdIn(Collection<String> orderIds);
+
+    /**
+     * Moves the payment to {@code to} only while its status is one of {@code from}. Returns 0 when
+     * a concurrent request changed the status first. Clears the persistence context, so payments
+     * loaded earlier in the transaction are detached afterwards.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.status = :to, p.timestamp = :now "
+            + "WHERE p.paymentId = :paymentId AND p.status IN :from")
+    int transition(@Param("paymentId") Long paymentId,
+                   @Param("from") Collection<PaymentStatus> from,
+                   @Param("to") PaymentStatus to,
+                   @Param("now") LocalDateTime now);
+
+    /**
+     * {@link #transition} that also records the Razorpay payment id and signature, which must only
+     * be written by the verification that wins.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.status = :to, p.timestamp = :now, "
+            + "p.razorpayPaymentId = :razorpayPaymentId, p.razorpaySignature = :razorpaySignature "
+            + "WHERE p.paymentId = :paymentId AND p.status IN :from")
+    int recordVerification(@Param("paymentId") Long paymentId,
+                           @Param("from") Collection<PaymentStatus> from,
+                           @Param("to") PaymentStatus to,
+                           @Param("razorpayPaymentId") String razorpayPaymentId,
+                           @Param("razorpaySignature") String razorpaySignature,
+                           @Param("now") LocalDateTime now);
+
+    /**
+     * {@link #transition} that also records a new Razorpay order and the amount it was created for,
+     * so a payment retried by two requests at once keeps the order of the one that moved it.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.status = :to, p.timestamp = :now, p.razorpayOrderId = :razorpayOrderId, "
+            + "p.amountMinor = :amountMinor, p.paymentMethod = :paymentMethod, p.currency = :currency "
+            + "WHERE p.paymentId = :paymentId AND p.status IN :from")
+    int recordRazorpayOrder(@Param("paymentId") Long paymentId,
+                            @Param("from") Collection<PaymentStatus> from,
+                            @Param("to") PaymentStatus to,
+                            @Param("razorpayOrderId") String razorpayOrderId,
+                            @Param("amountMinor") Long amountMinor,
+                            @Param("paymentMethod") String paymentMethod,
+                            @Param("currency") String currency,
+                            @Param("now") LocalDateTime now);
 }
@@ -1,5 +1,6 @@
 package com.payments.service;
 
+import com.payments.cache.PaymentCache;
 import com.payments.config.RazorpayProperties;
 import com.payments.dto.RazorpayOrderCreateRequest;
 import com.payments.dto.RazorpayOrderCreateResponse;
@@ -7,21 +8,21 @@ import com.payments.dto.RazorpayVerifyRequest;
 import com.payments.dto.RazorpayVerifyResponse;
 import com.payments.events.PaymentStatusEvent;
 import com.payments.kafka.PaymentStatusPublisher;
+import com.payments.model.MinorUnits;
 import com.payments.model.Payment;
+import com.payments.model.PaymentStatus;
+import com.payments.razorpay.RazorpayGateway;
 import com.payments.repository.PaymentRepository;
-import com.razorpay.Order;
-import com.razorpay.RazorpayClient;
 import com.razorpay.RazorpayException;
-import org.json.JSONObject;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
 import java.time.LocalDateTime;
-import java.util.HexFormat;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -30,13 +31,28 @@ public class PaymentService {
     private final PaymentRepository paymentRepository;
     private final RazorpayProperties razorpayProperties;
     private final PaymentStatusPublisher paymentStatusPublisher;
+    private final RazorpaySignatureVerifier signatureVerifier;
+    private final RazorpayGateway razorpayGateway;
+    private final PaymentCache paymentCache;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
 
     public PaymentService(PaymentRepository paymentRepository,
                           RazorpayProperties razorpayProperties,
-                          PaymentStatusPublisher paymentStatusPublisher) {
+                          PaymentStatusPublisher paymentStatusPublisher,
+                          RazorpaySignatureVerifier signatureVerifier,
+                          RazorpayGateway razorpayGateway,
+                          PaymentCache paymentCache,
+                          TransactionTemplate transactionTemplate,
+                          MeterRegistry meterRegistry) {
         this.paymentRepository = paymentRepository;
         this.razorpayProperties = razorpayProperties;
         this.paymentStatusPublisher = paymentStatusPublisher;
+        this.signatureVerifier = signatureVerifier;
+        this.razorpayGateway = razorpayGateway;
+        this.paymentCache = paymentCache;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
     }
 
     @Transactional
@@ -46,17 +62,22 @@ public class PaymentService {
             return existing.get();
         }
 
-        payment.setStatus("Pending");
+        payment.setStatus(PaymentStatus.PENDING);
         payment.setTimestamp(LocalDateTime.now());
-        Payment savedPayment = paymentRepository.save(payment);
+        Payment savedPayment = save(payment);
 
         boolean success = simulatePaymentGateway();
-        savedPayment.setStatus(success ? "Success" : "Failed");
-
-        return paymentRepository.save(savedPayment);
+        transition(savedPayment, success ? PaymentStatus.SUCCESS : PaymentStatus.FAILED);
+        return savedPayment;
     }
 
-    @Transactional
+    /**
+     * Creates the Razorpay order for a checkout, or answers with the one the payment already has.
+     * The Razorpay call runs outside any transaction so no connection is held while it waits; the
+     * order is recorded afterwards in a short one. A payment retried after a failure moves to
+     * CREATED with its new order in one conditional update; when a concurrent request moved it
+     * first, that request's order is returned instead.
+     */
     public RazorpayOrderCreateResponse createRazorpayOrder(RazorpayOrderCreateRequest request) throws RazorpayException {
         if (razorpayProperties.getKeyId() == null || razorpayProperties.getKeyId().isBlank()
                 || razorpayProperties.getKeySecret() == null || razorpayProperties.getKeySecret().isBlank()) {
@@ -69,101 +90,150 @@ public class PaymentService {
             throw new IllegalArgumentException("amount must be greater than zero");
         }
 
-        long amountInPaise = Math.round(request.getAmount() * 100);
+        long amountInPaise = MinorUnits.fromMajor(request.getAmount());
 
         Optional<Payment> existing = paymentRepository.findByOrderId(request.getOrderId());
         if (existing.isPresent() && existing.get().getRazorpayOrderId() != null) {
-            Payment payment = existing.get();
-            return new RazorpayOrderCreateResponse(
-                    payment.getOrderId(),
-                    payment.getRazorpayOrderId(),
-                    razorpayProperties.getKeyId(),
-                    amountInPaise,
-                    payment.getCurrency() == null ? razorpayProperties.getCurrency() : payment.getCurrency(),
-                    payment.getStatus()
-            );
+            return orderResponse(existing.get(), amountInPaise);
+        }
+        if (existing.isPresent() && !existing.get().getStatus().canTransitionTo(PaymentStatus.CREATED)) {
+            throw alreadyIn(existing.get());
         }
 
-        RazorpayClient razorpayClient = new RazorpayClient(razorpayProperties.getKeyId(), razorpayProperties.getKeySecret());
-
-        JSONObject orderRequest = new JSONObject();
-        orderRequest.put("amount", amountInPaise);
-        orderRequest.put("currency", razorpayProperties.getCurrency());
-        orderRequest.put("receipt", request.getOrderId());
+        String razorpayOrderId = razorpayGateway.createOrder(
+                amountInPaise, razorpayProperties.getCurrency(), request.getOrderId());
+
+        Payment recorded = transactionTemplate.execute(status ->
+                recordRazorpayOrder(existing, request, amountInPaise, razorpayOrderId));
+        if (recorded == null) {
+            // the conditional update lost; this read runs after the winner committed
+            Payment current = paymentRepository.findById(existing.get().getPaymentId()).orElse(existing.get());
+            if (current.getRazorpayOrderId() == null) {
+                throw alreadyIn(current);
+            }
+            return orderResponse(current, amountInPaise);
+        }
+        return orderResponse(recorded, amountInPaise);
+    }
 
-        Order razorpayOrder = razorpayClient.orders.create(orderRequest);
-        String razorpayOrderId = razorpayOrder.get("id");
+    /**
+     * Inserts a new payment in CREATED, or moves {@code existing} there with a conditional update.
+     * Returns null when a concurrent request moved the existing payment first.
+     */
+    private Payment recordRazorpayOrder(Optional<Payment> existing, RazorpayOrderCreateRequest request,
+                                        long amountInPaise, String razorpayOrderId) {
+        LocalDateTime now = LocalDateTime.now();
+        Payment payment = existing.orElseGet(Payment::new);
+        if (existing.isPresent() && paymentRepository.recordRazorpayOrder(payment.getPaymentId(),
+                PaymentStatus.CREATED.allowedFrom(), PaymentStatus.CREATED, razorpayOrderId, amountInPaise,
+                request.getPaymentMethod(), razorpayProperties.getCurrency(), now) == 0) {
+            return null;
+        }
 
-        Payment payment = existing.orElse(new Payment());
         payment.setOrderId(request.getOrderId());
-        payment.setAmount(request.getAmount());
+        payment.setAmountMinor(amountInPaise);
         payment.setPaymentMethod(request.getPaymentMethod());
         payment.setCurrency(razorpayProperties.getCurrency());
         payment.setRazorpayOrderId(razorpayOrderId);
-        payment.setStatus("CREATED");
-        payment.setTimestamp(LocalDateTime.now());
-        paymentRepository.save(payment);
+        payment.setStatus(PaymentStatus.CREATED);
+        payment.setTimestamp(now);
+        if (existing.isPresent()) {
+            paymentCache.refreshAfterCommit(payment);
+            return payment;
+        }
+        return save(payment);
+    }
 
+    private RazorpayOrderCreateResponse orderResponse(Payment payment, long amountInPaise) {
         return new RazorpayOrderCreateResponse(
-                request.getOrderId(),
-                razorpayOrderId,
+                payment.getOrderId(),
+                payment.getRazorpayOrderId(),
                 razorpayProperties.getKeyId(),
                 amountInPaise,
-                razorpayProperties.getCurrency(),
-                "CREATED"
+                payment.getCurrency() == null ? razorpayProperties.getCurrency() : payment.getCurrency(),
+                payment.getStatus().getLabel()
         );
     }
 
+    private static IllegalArgumentException alreadyIn(Payment payment) {
+        return new IllegalArgumentException("Payment for order " + payment.getOrderId() + " is already "
+                + payment.getStatus().getLabel());
+    }
+
+    /**
+     * Verifies a checkout signature and moves the payment to Success or Failed. Once a payment
+     * succeeded, later verifications of it change nothing: a valid one is answered as already
+     * verified, an invalid or mismatched one is rejected without failing the payment.
+     */
     @Transactional
     public RazorpayVerifyResponse verifyRazorpayPayment(RazorpayVerifyRequest request) {
         if (request.getOrderId() == null || request.getOrderId().isBlank()
                 || request.getRazorpayOrderId() == null || request.getRazorpayOrderId().isBlank()
                 || request.getRazorpayPaymentId() == null || request.getRazorpayPaymentId().isBlank()
                 || request.getRazorpaySignature() == null || request.getRazorpaySignature().isBlank()) {
-            return new RazorpayVerifyResponse(false, "INVALID_REQUEST", "Missing Razorpay verification fields");
+            return verification("invalid_request",
+                    new RazorpayVerifyResponse(false, "INVALID_REQUEST", "Missing Razorpay verification fields"));
         }
 
         Optional<Payment> paymentOpt = paymentRepository.findByOrderId(request.getOrderId());
         if (paymentOpt.isEmpty()) {
-            return new RazorpayVerifyResponse(false, "NOT_FOUND", "Order payment record not found");
+            return verification("not_found",
+                    new RazorpayVerifyResponse(false, "NOT_FOUND", "Order payment record not found"));
         }
 
         Payment payment = paymentOpt.get();
 
         if (request.getRazorpayOrderId() == null || !request.getRazorpayOrderId().equals(payment.getRazorpayOrderId())) {
-            payment.setStatus("Failed");
-            payment.setTimestamp(LocalDateTime.now());
-            paymentRepository.save(payment);
-            paymentStatusPublisher.publish(toEvent(payment, "FAILED", "Razorpay order id mismatch"));
-            return new RazorpayVerifyResponse(false, "FAILED", "Razorpay order id mismatch");
+            if (transition(payment, PaymentStatus.FAILED)) {
+                paymentStatusPublisher.publish(toEvent(payment, "FAILED", "Razorpay order id mismatch"));
+            }
+            return verification("order_mismatch",
+                    new RazorpayVerifyResponse(false, "FAILED", "Razorpay order id mismatch"));
         }
 
-        String payload = request.getRazorpayOrderId() + "|" + request.getRazorpayPaymentId();
-        String expectedSignature = hmacSha256(payload, razorpayProperties.getKeySecret());
-
-        boolean verified = MessageDigest.isEqual(
-                expectedSignature.getBytes(StandardCharsets.UTF_8),
-                request.getRazorpaySignature().getBytes(StandardCharsets.UTF_8)
+        boolean verified = signatureVerifier.verify(
+                request.getRazorpayOrderId(),
+                request.getRazorpayPaymentId(),
+                request.getRazorpaySignature()
         );
 
-        payment.setRazorpayPaymentId(request.getRazorpayPaymentId());
-        payment.setRazorpaySignature(request.getRazorpaySignature());
-        payment.setTimestamp(LocalDateTime.now());
+        PaymentStatus target = verified ? PaymentStatus.SUCCESS : PaymentStatus.FAILED;
+        LocalDateTime now = LocalDateTime.now();
+        boolean applied = paymentRepository.recordVerification(payment.getPaymentId(), target.allowedFrom(), target,
+                request.getRazorpayPaymentId(), request.getRazorpaySignature(), now) == 1;
+        if (applied) {
+            payment.setStatus(target);
+            payment.setRazorpayPaymentId(request.getRazorpayPaymentId());
+            payment.setRazorpaySignature(request.getRazorpaySignature());
+            payment.setTimestamp(now);
+            paymentCache.refreshAfterCommit(payment);
+        }
 
         if (verified) {
-            payment.setStatus("Success");
-            paymentRepository.save(payment);
+            if (!applied) {
+                // only a payment that already succeeded cannot move to Success
+                return verification("already_verified",
+                        new RazorpayVerifyResponse(true, "VERIFIED", "Payment already verified"));
+            }
             paymentStatusPublisher.publish(toEvent(payment, "SUCCESS", "Payment signature verified"));
-            return new RazorpayVerifyResponse(true, "VERIFIED", "Payment signature verified");
+            return verification("verified",
+                    new RazorpayVerifyResponse(true, "VERIFIED", "Payment signature verified"));
         }
 
-        payment.setStatus("Failed");
-        paymentRepository.save(payment);
-        paymentStatusPublisher.publish(toEvent(payment, "FAILED", "Invalid payment signature"));
-        return new RazorpayVerifyResponse(false, "FAILED", "Invalid payment signature");
+        if (applied) {
+            paymentStatusPublisher.publish(toEvent(payment, "FAILED", "Invalid payment signature"));
+        }
+        return verification("invalid_signature",
+                new RazorpayVerifyResponse(false, "FAILED", "Invalid payment signature"));
     }
 
-    private PaymentStatusEvent toEvent(Payment payment, String status, String reason) {
+    // http.server.requests only tells 200 from 400; this counter says why a verification failed.
+    private RazorpayVerifyResponse verification(String result, RazorpayVerifyResponse response) {
+        meterRegistry.counter("payments.verifications", "result", result).increment();
+        return response;
+    }
+
+    PaymentStatusEvent toEvent(Payment payment, String status, String reason) {
         return new PaymentStatusEvent(
                 payment.getOrderId(),
                 payment.getRazorpayPaymentId(),
@@ -174,47 +244,65 @@ public class PaymentService {
         );
     }
 
-    private String hmacSha256(String payload, String secret) {
-        try {
-            Mac sha256Hmac = Mac.getInstance("HmacSHA256");
-            SecretKeySpec secretKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
-            sha256Hmac.init(secretKey);
-            byte[] hash = sha256Hmac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
-            return HexFormat.of().formatHex(hash);
-        } catch (Exception e) {
-            throw new IllegalStateException("Unable to compute payment signature", e);
-        }
+    public Optional<Payment> getPaymentByOrderId(String orderId) {
+        return paymentCache.findByOrderId(orderId);
     }
 
-    public Optional<Payment> getPaymentByOrderId(String orderId) {
-        return paymentRepository.findByOrderId(orderId);
+    public Map<String, Payment> getPaymentsByOrderIds(Collection<String> orderIds) {
+        return paymentCache.findByOrderIds(orderIds);
     }
 
-    @Transactional
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public Payment refundPayment(String orderId) {
-        Optional<Payment> existingOpt = paymentRepository.findByOrderId(orderId);
-        if (existingOpt.isEmpty()) {
-            return null;
-        }
+        return paymentRepository.findByOrderId(orderId).map(this::refund).orElse(null);
+    }
 
-        Payment payment = existingOpt.get();
+    /**
+     * Executes a refund command from the order cancellation saga. Unlike {@link #refundPayment}
+     * it always answers on the payment-status topic, also for repeated commands and payments that
+     * cannot be refunded, so the order never waits for an event that will not come.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public void handleRefundRequest(String orderId) {
+        Optional<Payment> existing = paymentRepository.findByOrderId(orderId);
+        if (existing.isEmpty()) {
+            paymentStatusPublisher.publish(new PaymentStatusEvent(
+                    orderId, null, null, "REFUND_FAILED", "Payment record not found", System.currentTimeMillis()));
+            return;
+        }
 
-        if ("REFUNDED".equalsIgnoreCase(payment.getStatus())) {
-            return payment;
+        Payment payment = existing.get();
+        if (payment.getStatus() == PaymentStatus.SUCCESS) {
+            refund(payment);
+        } else if (payment.getStatus() == PaymentStatus.REFUNDED) {
+            paymentStatusPublisher.publish(toEvent(payment, "REFUNDED", "Payment already refunded"));
+        } else {
+            paymentStatusPublisher.publish(toEvent(payment, "REFUND_FAILED",
+                    "Payment is not refundable in status " + payment.getStatus().getLabel()));
         }
+    }
 
-        if (!"Success".equalsIgnoreCase(payment.getStatus())) {
+    /**
+     * Claims the refund by moving the payment to REFUND_PENDING before calling the gateway, so of
+     * two concurrent refunds only one reaches it. The other returns the payment as the winner left
+     * it (read committed, so that read sees the winner's commit) and publishes nothing; the
+     * winner publishes the outcome.
+     */
+    private Payment refund(Payment payment) {
+        if (payment.getStatus() != PaymentStatus.SUCCESS) {
+            // REFUNDED included: a repeated refund returns the existing one
             return payment;
         }
-
-        payment.setStatus("REFUND_PENDING");
-        payment.setTimestamp(LocalDateTime.now());
-        paymentRepository.save(payment);
+        if (!transition(payment, PaymentStatus.REFUND_PENDING)) {
+            return paymentRepository.findById(payment.getPaymentId()).orElse(payment);
+        }
 
         boolean success = simulatePaymentGateway();
-        payment.setStatus(success ? "REFUNDED" : "REFUND_FAILED");
-
-        return paymentRepository.save(payment);
+        PaymentStatus outcome = success ? PaymentStatus.REFUNDED : PaymentStatus.REFUND_FAILED;
+        transition(payment, outcome);
+        paymentStatusPublisher.publish(toEvent(payment, outcome.getLabel(),
+                success ? "Refund completed" : "Refund rejected by payment gateway"));
+        return payment;
     }
 
     private boolean simulatePaymentGateway() {
@@ -222,6 +310,28 @@ public class PaymentService {
     }
 
     public Optional<Payment> getPaymentById(Long paymentId) {
-        return paymentRepository.findById(paymentId);
+        return paymentCache.findById(paymentId);
+    }
+
+    /**
+     * Moves {@code payment} to {@code target} if the row is still in a status the transition table
+     * allows that from, and updates {@code payment} to match. Returns false, leaving it untouched,
+     * when a concurrent request moved the payment first.
+     */
+    private boolean transition(Payment payment, PaymentStatus target) {
+        LocalDateTime now = LocalDateTime.now();
+        if (paymentRepository.transition(payment.getPaymentId(), target.allowedFrom(), target, now) == 0) {
+            return false;
+        }
+        payment.setStatus(target);
+        payment.setTimestamp(now);
+        paymentCache.refreshAfterCommit(payment);
+        return true;
+    }
+
+    private Payment save(Payment payment) {
+        Payment saved = paymentRepository.save(payment);
+        paymentCache.refreshAfterCommit(saved);
+        return saved;
     }
 }
@@ -0,0 +1,188 @@
+package com.payments.service;
+
+import com.payments.config.RazorpayProperties;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Verifies Razorpay checkout signatures (HMAC-SHA256 of {@code razorpayOrderId|razorpayPaymentId}).
+ *
+ * Mac instances are created and keyed once and then reused from a bounded pool, so the provider
+ * lookup and key schedule are not paid per request. A pool is used rather than a ThreadLocal so
+ * that virtual threads, which are never reused, still share instances. When the configured secret
+ * changes the pool is rebuilt; Macs borrowed from the old pool are simply dropped on return.
+ */
+@Component
+public class RazorpaySignatureVerifier {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int SIGNATURE_BYTES = 32;
+    private static final byte SEPARATOR = '|';
+
+    private final RazorpayProperties razorpayProperties;
+    private final int poolSize;
+
+    private volatile KeyedPool current;
+    private volatile KeyedPool previous;
+
+    public RazorpaySignatureVerifier(RazorpayProperties razorpayProperties) {
+        this(razorpayProperties, Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    RazorpaySignatureVerifier(RazorpayProperties razorpayProperties, int poolSize) {
+        this.razorpayProperties = razorpayProperties;
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * Returns true when {@code signatureHex} is a valid signature for the given ids under the
+     * current secret or, during a rotation, the previous one.
+     */
+    public boolean verify(String razorpayOrderId, String razorpayPaymentId, String signatureHex) {
+        if (signatureHex == null || signatureHex.length() != SIGNATURE_BYTES * 2) {
+            return false;
+        }
+        byte[] orderIdBytes = razorpayOrderId.getBytes(StandardCharsets.UTF_8);
+        byte[] paymentIdBytes = razorpayPaymentId.getBytes(StandardCharsets.UTF_8);
+
+        if (verify(currentPool(), orderIdBytes, paymentIdBytes, signatureHex)) {
+            return true;
+        }
+        KeyedPool fallback = previousPool();
+        return fallback != null && verify(fallback, orderIdBytes, paymentIdBytes, signatureHex);
+    }
+
+    /**
+     * Hex-encoded signature under the current secret. Intended for tests and local stubs that
+     * need to produce what Razorpay would send back.
+     */
+    public String sign(String razorpayOrderId, String razorpayPaymentId) {
+        KeyedPool pool = currentPool();
+        PooledMac pooled = pool.borrow();
+        pooled.compute(razorpayOrderId.getBytes(StandardCharsets.UTF_8),
+                razorpayPaymentId.getBytes(StandardCharsets.UTF_8));
+        String hex = HexFormat.of().formatHex(pooled.digest);
+        pool.release(pooled);
+        return hex;
+    }
+
+    private boolean verify(KeyedPool pool, byte[] orderIdBytes, byte[] paymentIdBytes, String signatureHex) {
+        PooledMac pooled = pool.borrow();
+        if (!decodeHex(signatureHex, pooled.provided)) {
+            pool.release(pooled);
+            return false;
+        }
+        pooled.compute(orderIdBytes, paymentIdBytes);
+        boolean verified = MessageDigest.isEqual(pooled.digest, pooled.provided);
+        pool.release(pooled);
+        return verified;
+    }
+
+    private KeyedPool currentPool() {
+        String secret = razorpayProperties.getKeySecret();
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("Razorpay keys are not configured");
+        }
+        KeyedPool pool = current;
+        if (pool == null || !pool.matches(secret)) {
+            synchronized (this) {
+                pool = current;
+                if (pool == null || !pool.matches(secret)) {
+                    pool = new KeyedPool(secret, poolSize);
+                    current = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    private KeyedPool previousPool() {
+        String secret = razorpayProperties.getPreviousKeySecret();
+        if (secret == null || secret.isBlank()) {
+            return null;
+        }
+        KeyedPool pool = previous;
+        if (pool == null || !pool.matches(secret)) {
+            synchronized (this) {
+                pool = previous;
+                if (pool == null || !pool.matches(secret)) {
+                    pool = new KeyedPool(secret, poolSize);
+                    previous = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    private static boolean decodeHex(String hex, byte[] target) {
+        for (int i = 0; i < target.length; i++) {
+            int high = Character.digit(hex.charAt(i * 2), 16);
+            int low = Character.digit(hex.charAt(i * 2 + 1), 16);
+            if (high < 0 || low < 0) {
+                return false;
+            }
+            target[i] = (byte) ((high << 4) | low);
+        }
+        return true;
+    }
+
+    private static final class KeyedPool {
+        private final String secret;
+        private final SecretKeySpec key;
+        private final BlockingQueue<PooledMac> idle;
+
+        KeyedPool(String secret, int size) {
+            this.secret = secret;
+            this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+            this.idle = new ArrayBlockingQueue<>(Math.max(1, size));
+        }
+
+        boolean matches(String candidate) {
+            return Objects.equals(secret, candidate);
+        }
+
+        PooledMac borrow() {
+            PooledMac pooled = idle.poll();
+            return pooled != null ? pooled : new PooledMac(key);
+        }
+
+        void release(PooledMac pooled) {
+            idle.offer(pooled);
+        }
+    }
+
+    private static final class PooledMac {
+        private final Mac mac;
+        private final byte[] digest = new byte[SIGNATURE_BYTES];
+        private final byte[] provided = new byte[SIGNATURE_BYTES];
+
+        PooledMac(SecretKeySpec key) {
+            try {
+                this.mac = Mac.getInstance(ALGORITHM);
+                this.mac.init(key);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Unable to initialise payment signature verifier", e);
+            }
+        }
+
+        void compute(byte[] orderIdBytes, byte[] paymentIdBytes) {
+            mac.update(orderIdBytes);
+            mac.update(SEPARATOR);
+            mac.update(paymentIdBytes);
+            try {
+                mac.doFinal(digest, 0);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Unable to compute payment signature", e);
+            }
+        }
+    }
+}
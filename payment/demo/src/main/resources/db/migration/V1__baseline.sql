@@ -0,0 +1,18 @@
+-- Schema as Hibernate's ddl-auto: update created it before migrations were introduced.
+-- Existing databases are baselined at this version and never run it.
+
+CREATE TABLE payments (
+    payment_id          BIGINT NOT NULL AUTO_INCREMENT,
+    order_id            VARCHAR(255) NOT NULL,
+    amount              DOUBLE,
+    razorpay_order_id   VARCHAR(255),
+    razorpay_payment_id VARCHAR(255),
+    razorpay_signature  VARCHAR(255),
+    currency            VARCHAR(255),
+    status              VARCHAR(255),
+    payment_method      VARCHAR(255),
+    `timestamp`         DATETIME(6),
+    PRIMARY KEY (payment_id),
+    CONSTRAINT uk_payments_order_id UNIQUE (order_id),
+    CONSTRAINT uk_payments_razorpay_order_id UNIQUE (razorpay_order_id)
+) ENGINE = InnoDB;
@@ -0,0 +1,31 @@
+-- Transactional outbox for payment-status events (PaymentOutboxRelay) and the stored responses
+-- behind Idempotency-Key (IdempotencyFilter).
+
+CREATE TABLE payment_outbox (
+    id             BIGINT NOT NULL AUTO_INCREMENT,
+    topic          VARCHAR(255) NOT NULL,
+    message_key    VARCHAR(255) NOT NULL,
+    payload        LONGBLOB NOT NULL,
+    content_type   VARCHAR(255) NOT NULL,
+    created_at     DATETIME(6),
+    published_at   DATETIME(6),
+    claim_token    VARCHAR(255),
+    claimed_until  DATETIME(6),
+    attempts       INT NOT NULL,
+    PRIMARY KEY (id),
+    -- the relay's claim query (published_at IS NULL ORDER BY id) and the cleanup by published_at
+    INDEX idx_payment_outbox_published_at_id (published_at, id)
+) ENGINE = InnoDB;
+
+CREATE TABLE idempotency_records (
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash    VARCHAR(64) NOT NULL,
+    state           VARCHAR(16) NOT NULL,
+    response_status INT,
+    content_type    VARCHAR(255),
+    response_body   LONGBLOB,
+    created_at      DATETIME(6) NOT NULL,
+    locked_until    DATETIME(6),
+    PRIMARY KEY (idempotency_key),
+    INDEX idx_idempotency_records_created_at (created_at)
+) ENGINE = InnoDB;
@@ -0,0 +1,13 @@
+-- Amounts move from DOUBLE rupees to exact BIGINT paise. The DECIMAL cast rounds half up from
+-- the shortest decimal form of each value, the same as MinorUnits.fromMajor.
+ALTER TABLE payments ADD COLUMN amount_minor BIGINT AFTER order_id;
+UPDATE payments SET amount_minor = ROUND(CAST(amount AS DECIMAL(19, 4)) * 100) WHERE amount IS NOT NULL;
+
+-- status becomes a one-byte ENUM holding the same labels (PaymentStatus.getLabel()); add new
+-- values at the end so the change stays metadata-only. Indexes serve reconciliation scans by
+-- status and time range.
+ALTER TABLE payments
+    DROP COLUMN amount,
+    MODIFY status ENUM ('Pending', 'CREATED', 'Success', 'Failed', 'REFUND_PENDING', 'REFUNDED', 'REFUND_FAILED'),
+    ADD INDEX idx_payments_status_timestamp (status, `timestamp`),
+    ADD INDEX idx_payments_timestamp (`timestamp`);
@@ -0,0 +1,3 @@
+-- W3C traceparent of the request that wrote the event, so the relay's Kafka send continues that
+-- trace instead of starting one of its own. NULL for rows written outside a traced request.
+ALTER TABLE payment_outbox ADD COLUMN trace_parent VARCHAR(64) AFTER content_type;
@@ -0,0 +1,3 @@
+-- The relay's claim query skips rows whose message_key has an older unpublished row; this index
+-- answers that per-key lookup without scanning the unpublished rows of every key.
+CREATE INDEX idx_payment_outbox_key_published_at_id ON payment_outbox (message_key, published_at, id);
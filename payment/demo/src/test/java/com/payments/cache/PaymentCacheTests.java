@@ -0,0 +1,181 @@
+package com.payments.cache;
+
+import com.payments.config.PaymentCacheProperties;
+import com.payments.model.Payment;
+import com.payments.model.PaymentStatus;
+import com.payments.repository.PaymentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentCacheTests {
+
+	private final Map<String, Payment> rows = new ConcurrentHashMap<>();
+	private final PaymentRepository repository = mock(PaymentRepository.class);
+	private final PaymentCacheProperties properties = new PaymentCacheProperties();
+	private final TransactionTemplate transactionTemplate = new TransactionTemplate(new NoOpTransactionManager());
+
+	@Test
+	void readsThroughOnAMissAndServesLaterReadsFromMemory() {
+		PaymentCache cache = cache();
+		row("ORD-1", 7L, PaymentStatus.SUCCESS);
+
+		assertEquals(PaymentStatus.SUCCESS, cache.findByOrderId("ORD-1").orElseThrow().getStatus());
+		assertEquals(PaymentStatus.SUCCESS, cache.findByOrderId("ORD-1").orElseThrow().getStatus());
+		assertEquals(PaymentStatus.SUCCESS, cache.findById(7L).orElseThrow().getStatus());
+
+		verify(repository, times(1)).findByOrderId("ORD-1");
+		verify(repository, never()).findById(any());
+	}
+
+	@Test
+	void doesNotCacheAMissingPayment() {
+		PaymentCache cache = cache();
+
+		assertTrue(cache.findByOrderId("ORD-1").isEmpty());
+		row("ORD-1", 7L, PaymentStatus.PENDING);
+
+		assertEquals(PaymentStatus.PENDING, cache.findByOrderId("ORD-1").orElseThrow().getStatus());
+		verify(repository, times(2)).findByOrderId("ORD-1");
+	}
+
+	@Test
+	void loadsOnlyTheMissesOfABatchLookupInOneQuery() {
+		PaymentCache cache = cache();
+		row("ORD-1", 7L, PaymentStatus.SUCCESS);
+		row("ORD-2", 8L, PaymentStatus.FAILED);
+		cache.findByOrderId("ORD-1");
+
+		Map<String, Payment> found = cache.findByOrderIds(List.of("ORD-1", "ORD-2", "ORD-3"));
+
+		assertEquals(Map.of("ORD-1", PaymentStatus.SUCCESS, "ORD-2", PaymentStatus.FAILED),
+				Map.of("ORD-1", found.get("ORD-1").getStatus(), "ORD-2", found.get("ORD-2").getStatus()));
+		verify(repository, times(1)).findByOrderId("ORD-1");
+		verify(repository).findByOrderIdIn(List.of("ORD-2", "ORD-3"));
+	}
+
+	@Test
+	void cachesAWriteOnlyOnceItsTransactionCommits() {
+		PaymentCache cache = cache();
+		row("ORD-1", 7L, PaymentStatus.SUCCESS);
+		cache.findByOrderId("ORD-1");
+
+		transactionTemplate.executeWithoutResult(status -> {
+			cache.refreshAfterCommit(payment("ORD-1", 7L, PaymentStatus.REFUNDED));
+			assertEquals(PaymentStatus.SUCCESS, cache.findByOrderId("ORD-1").orElseThrow().getStatus());
+		});
+
+		assertEquals(PaymentStatus.REFUNDED, cache.findByOrderId("ORD-1").orElseThrow().getStatus());
+		assertEquals(PaymentStatus.REFUNDED, cache.findById(7L).orElseThrow().getStatus());
+		verify(repository, times(1)).findByOrderId("ORD-1");
+		verify(repository, never()).findById(any());
+	}
+
+	@Test
+	void dropsTheEntryWhenTheWritingTransactionRollsBack() {
+		PaymentCache cache = cache();
+		row("ORD-1", 7L, PaymentStatus.SUCCESS);
+		cache.findByOrderId("ORD-1");
+
+		transactionTemplate.executeWithoutResult(status -> {
+			cache.refreshAfterCommit(payment("ORD-1", 7L, PaymentStatus.REFUNDED));
+			status.setRollbackOnly();
+		});
+
+		assertEquals(PaymentStatus.SUCCESS, cache.findByOrderId("ORD-1").orElseThrow().getStatus());
+		verify(repository, times(2)).findByOrderId("ORD-1");
+	}
+
+	@Test
+	void returnsCopiesThatCallersMayChange() {
+		PaymentCache cache = cache();
+		row("ORD-1", 7L, PaymentStatus.SUCCESS);
+
+		Payment loaded = cache.findByOrderId("ORD-1").orElseThrow();
+		loaded.setStatus(PaymentStatus.FAILED);
+		Payment hit = cache.findByOrderId("ORD-1").orElseThrow();
+		hit.setStatus(PaymentStatus.FAILED);
+		Payment written = payment("ORD-1", 7L, PaymentStatus.REFUNDED);
+		cache.refreshAfterCommit(written);
+		written.setStatus(PaymentStatus.FAILED);
+
+		Payment current = cache.findByOrderId("ORD-1").orElseThrow();
+		assertEquals(PaymentStatus.REFUNDED, current.getStatus());
+		assertNotSame(current, cache.findByOrderId("ORD-1").orElseThrow());
+		assertEquals(PaymentStatus.REFUNDED, cache.findByOrderIds(List.of("ORD-1")).get("ORD-1").getStatus());
+		assertEquals(PaymentStatus.REFUNDED, cache.findById(7L).orElseThrow().getStatus());
+	}
+
+	@Test
+	void readsTheRepositoryEveryTimeWhenDisabled() {
+		properties.setEnabled(false);
+		PaymentCache cache = cache();
+		row("ORD-1", 7L, PaymentStatus.SUCCESS);
+
+		cache.findByOrderId("ORD-1");
+		cache.refreshAfterCommit(payment("ORD-1", 7L, PaymentStatus.REFUNDED));
+		cache.findByOrderId("ORD-1");
+
+		verify(repository, times(2)).findByOrderId("ORD-1");
+	}
+
+	private PaymentCache cache() {
+		when(repository.findByOrderId(anyString()))
+				.thenAnswer(invocation -> Optional.ofNullable(rows.get(invocation.<String>getArgument(0))));
+		when(repository.findByOrderIdIn(anyCollection())).thenAnswer(invocation -> invocation.<Collection<String>>getArgument(0)
+				.stream().filter(rows::containsKey).map(rows::get).toList());
+		return new PaymentCache(repository, properties, new SimpleMeterRegistry());
+	}
+
+	private void row(String orderId, Long paymentId, PaymentStatus status) {
+		rows.put(orderId, payment(orderId, paymentId, status));
+	}
+
+	private static Payment payment(String orderId, Long paymentId, PaymentStatus status) {
+		Payment payment = new Payment(orderId, 10_000L, "razorpay");
+		payment.setPaymentId(paymentId);
+		payment.setStatus(status);
+		return payment;
+	}
+
+	private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+		@Override
+		protected Object doGetTransaction() {
+			return new Object();
+		}
+
+		@Override
+		protected void doBegin(Object transaction, TransactionDefinition definition) {
+		}
+
+		@Override
+		protected void doCommit(DefaultTransactionStatus status) {
+		}
+
+		@Override
+		protected void doRollback(DefaultTransactionStatus status) {
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package com.payments.controller;
+
+import com.payments.dto.ErrorResponse;
+import com.payments.dto.PaymentStatusBatchRequest;
+import com.payments.dto.PaymentStatusBatchResponse;
+import com.payments.model.Payment;
+import com.payments.model.PaymentStatus;
+import com.payments.service.PaymentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentControllerStatusBatchTests {
+
+	private final PaymentService paymentService = mock(PaymentService.class);
+	private final PaymentController controller = new PaymentController(paymentService, 2);
+
+	@Test
+	void dedupesAndDropsBlankIdsBeforeLookingThemUp() {
+		when(paymentService.getPaymentsByOrderIds(any())).thenReturn(Map.of("ORD-1", payment("ORD-1", PaymentStatus.SUCCESS)));
+
+		ResponseEntity<?> response = controller.getPaymentStatuses(
+				new PaymentStatusBatchRequest(Arrays.asList("ORD-1", " ", null, "ORD-1", "", "ORD-2")));
+
+		verify(paymentService).getPaymentsByOrderIds(Set.of("ORD-1", "ORD-2"));
+		PaymentStatusBatchResponse body = assertInstanceOf(PaymentStatusBatchResponse.class, response.getBody());
+		assertEquals(200, response.getStatusCode().value());
+		assertEquals(Map.of("ORD-1", "Success"), body.getStatuses());
+		assertEquals(List.of("ORD-2"), body.getNotFound());
+	}
+
+	@Test
+	void answersAnEmptyRequestWithoutALookup() {
+		ResponseEntity<?> response = controller.getPaymentStatuses(new PaymentStatusBatchRequest(null));
+
+		PaymentStatusBatchResponse body = assertInstanceOf(PaymentStatusBatchResponse.class, response.getBody());
+		assertEquals(Map.of(), body.getStatuses());
+		assertEquals(List.of(), body.getNotFound());
+		verify(paymentService, never()).getPaymentsByOrderIds(any(Collection.class));
+	}
+
+	@Test
+	void rejectsMoreDistinctIdsThanTheMaximum() {
+		ResponseEntity<?> response = controller.getPaymentStatuses(
+				new PaymentStatusBatchRequest(List.of("ORD-1", "ORD-2", "ORD-3")));
+
+		assertEquals(400, response.getStatusCode().value());
+		ErrorResponse body = assertInstanceOf(ErrorResponse.class, response.getBody());
+		assertEquals("INVALID_REQUEST", body.getCode());
+		assertEquals("At most 2 orderIds per request", body.getMessage());
+		verify(paymentService, never()).getPaymentsByOrderIds(any(Collection.class));
+	}
+
+	@Test
+	void countsTheMaximumAfterRemovingDuplicates() {
+		when(paymentService.getPaymentsByOrderIds(any())).thenReturn(Map.of());
+
+		ResponseEntity<?> response = controller.getPaymentStatuses(
+				new PaymentStatusBatchRequest(List.of("ORD-1", "ORD-2", "ORD-1")));
+
+		assertEquals(200, response.getStatusCode().value());
+		PaymentStatusBatchResponse body = assertInstanceOf(PaymentStatusBatchResponse.class, response.getBody());
+		assertEquals(List.of("ORD-1", "ORD-2"), body.getNotFound());
+	}
+
+	private static Payment payment(String orderId, PaymentStatus status) {
+		Payment payment = new Payment(orderId, 10_000L, "razorpay");
+		payment.setStatus(status);
+		return payment;
+	}
+}
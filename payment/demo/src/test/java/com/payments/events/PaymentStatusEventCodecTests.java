@@ -0,0 +1,43 @@
+package com.payments.events;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PaymentStatusEventCodecTests {
+
+	// Same fixture as the order service's PaymentStatusEventCodecTests; both sides must agree on it.
+	static final String GOLDEN_V1 = "b5010000018bcfe56800054f524431067061795f31000853554343455353036f6b";
+
+	@Test
+	void encodesVersionOneLayout() {
+		PaymentStatusEvent event = new PaymentStatusEvent("ORD1", "pay_1", null, "SUCCESS", "ok", 1700000000000L);
+
+		assertEquals(GOLDEN_V1, HexFormat.of().formatHex(PaymentStatusEventCodec.encode(event)));
+	}
+
+	@Test
+	void roundTripsNonAsciiAndLongFields() {
+		String reason = "réussi ".repeat(40);
+		PaymentStatusEvent event = new PaymentStatusEvent("ORD2", null, "order_2", "FAILED", reason, 42L);
+
+		PaymentStatusEvent decoded = PaymentStatusEventCodec.decode(PaymentStatusEventCodec.encode(event));
+
+		assertEquals("ORD2", decoded.getOrderId());
+		assertNull(decoded.getPaymentId());
+		assertEquals("order_2", decoded.getRazorpayOrderId());
+		assertEquals(reason, decoded.getReason());
+		assertEquals(42L, decoded.getTimestamp());
+	}
+
+	@Test
+	void rejectsTruncatedInput() {
+		byte[] truncated = HexFormat.of().parseHex(GOLDEN_V1.substring(0, 30));
+
+		assertThrows(IllegalArgumentException.class, () -> PaymentStatusEventCodec.decode(truncated));
+	}
+}
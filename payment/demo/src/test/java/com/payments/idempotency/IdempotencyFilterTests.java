@@ -0,0 +1,225 @@
+package com.payments.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payments.config.IdempotencyProperties;
+import com.payments.model.IdempotencyRecord;
+import com.payments.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IdempotencyFilterTests {
+
+	private static final String PATH = "/api/payments/razorpay/verify";
+	private static final String BODY = "{\"orderId\":\"ORD-1\"}";
+
+	private final Map<String, IdempotencyRecord> records = new ConcurrentHashMap<>();
+	private final IdempotencyRecordRepository repository = repository();
+	private final IdempotencyFilter filter = instance();
+	private final IdempotencyFilter otherInstance = instance();
+	private final AtomicInteger executions = new AtomicInteger();
+
+	@Test
+	void replaysTheStoredResponseForTheSameKeyAndBody() throws Exception {
+		MockHttpServletResponse first = send("key-1", BODY, echo(200));
+		MockHttpServletResponse second = send("key-1", BODY, echo(200));
+
+		assertEquals(1, executions.get());
+		assertEquals(200, second.getStatus());
+		assertEquals(BODY, second.getContentAsString());
+		assertEquals("true", second.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+		assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+	}
+
+	@Test
+	void rejectsAKeyReusedForADifferentBody() throws Exception {
+		send("key-1", BODY, echo(200));
+		MockHttpServletResponse reused = send("key-1", "{\"orderId\":\"ORD-2\"}", echo(200));
+
+		assertEquals(422, reused.getStatus());
+		assertTrue(reused.getContentAsString().contains("IDEMPOTENCY_KEY_REUSED"));
+		assertEquals(1, executions.get());
+	}
+
+	@Test
+	void answersConflictWhileTheFirstRequestRunsWithoutBlockingOtherKeys() throws Exception {
+		MockHttpServletResponse[] duplicate = new MockHttpServletResponse[1];
+		MockHttpServletResponse[] otherKey = new MockHttpServletResponse[1];
+		send("key-1", BODY, (request, response) -> {
+			duplicate[0] = send("key-1", BODY, echo(200));
+			otherKey[0] = send("key-2", BODY, echo(200));
+			echo(200).doFilter(request, response);
+		});
+
+		assertEquals(409, duplicate[0].getStatus());
+		assertEquals("1", duplicate[0].getHeader("Retry-After"));
+		assertTrue(duplicate[0].getContentAsString().contains("IN_PROGRESS"));
+		assertEquals(200, otherKey[0].getStatus());
+	}
+
+	@Test
+	void releasesTheKeyAfterAServerErrorOrAnException() throws Exception {
+		send("key-1", BODY, echo(503));
+		assertThrows(IllegalStateException.class, () -> send("key-1", BODY, (request, response) -> {
+			executions.incrementAndGet();
+			throw new IllegalStateException("boom");
+		}));
+		MockHttpServletResponse retry = send("key-1", BODY, echo(200));
+
+		assertEquals(3, executions.get());
+		assertEquals(200, retry.getStatus());
+		assertNull(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+	}
+
+	@Test
+	void anotherInstanceTakesOverAKeyWhoseLeaseExpired() throws Exception {
+		MockHttpServletResponse[] takeover = new MockHttpServletResponse[1];
+		send(filter, "key-1", BODY, (request, response) -> {
+			// this instance stalls past its lease
+			records.get("key-1").setLockedUntil(LocalDateTime.now().minusSeconds(1));
+			takeover[0] = send(otherInstance, "key-1", BODY, echo(201));
+		});
+
+		assertEquals(1, executions.get());
+		assertEquals(201, takeover[0].getStatus());
+		assertNull(takeover[0].getHeader(IdempotencyFilter.REPLAYED_HEADER));
+	}
+
+	@Test
+	void servesTheCachedBodyToAsyncReaders() throws Exception {
+		AtomicBoolean allRead = new AtomicBoolean();
+		send("key-1", BODY, (request, response) -> request.getInputStream().setReadListener(new ReadListener() {
+			@Override
+			public void onDataAvailable() {
+			}
+
+			@Override
+			public void onAllDataRead() {
+				allRead.set(true);
+			}
+
+			@Override
+			public void onError(Throwable t) {
+			}
+		}));
+
+		assertTrue(allRead.get());
+	}
+
+	private MockHttpServletResponse send(String key, String body, FilterChain chain)
+			throws ServletException, IOException {
+		return send(filter, key, body, chain);
+	}
+
+	private static MockHttpServletResponse send(IdempotencyFilter filter, String key, String body, FilterChain chain)
+			throws ServletException, IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", PATH);
+		request.addHeader(IdempotencyFilter.KEY_HEADER, key);
+		request.setContentType("application/json");
+		request.setContent(body.getBytes(StandardCharsets.UTF_8));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, chain);
+		return response;
+	}
+
+	private IdempotencyFilter instance() {
+		return new IdempotencyFilter(
+				new IdempotencyStore(repository, new IdempotencyProperties(), new NoOpTransactionManager()),
+				new IdempotencyProperties(), new ObjectMapper(), new SimpleMeterRegistry());
+	}
+
+	/** Runs the request: answers {@code status} with the request body. */
+	private FilterChain echo(int status) {
+		return (request, response) -> {
+			executions.incrementAndGet();
+			byte[] body = request.getInputStream().readAllBytes();
+			response.setContentType("application/json");
+			((HttpServletResponse) response).setStatus(status);
+			response.getOutputStream().write(body);
+		};
+	}
+
+	/** idempotency_records kept in {@link #records}; both filter instances share it, like one database. */
+	private IdempotencyRecordRepository repository() {
+		IdempotencyRecordRepository repository = mock(IdempotencyRecordRepository.class);
+		when(repository.tryClaim(anyString(), anyString(), any(), any())).thenAnswer(invocation -> {
+			IdempotencyRecord record = new IdempotencyRecord();
+			record.setIdempotencyKey(invocation.getArgument(0));
+			record.setRequestHash(invocation.getArgument(1));
+			record.setState(IdempotencyRecord.IN_PROGRESS);
+			record.setCreatedAt(invocation.getArgument(2));
+			record.setLockedUntil(invocation.getArgument(3));
+			return records.putIfAbsent(invocation.getArgument(0), record) == null ? 1 : 0;
+		});
+		when(repository.takeOver(anyString(), any(), any())).thenAnswer(invocation -> {
+			IdempotencyRecord record = records.get(invocation.<String>getArgument(0));
+			if (record == null || !IdempotencyRecord.IN_PROGRESS.equals(record.getState())
+					|| !record.getLockedUntil().isBefore(invocation.getArgument(2))) {
+				return 0;
+			}
+			record.setLockedUntil(invocation.getArgument(1));
+			return 1;
+		});
+		when(repository.complete(anyString(), anyInt(), any(), any())).thenAnswer(invocation -> {
+			IdempotencyRecord record = records.get(invocation.<String>getArgument(0));
+			record.setState(IdempotencyRecord.COMPLETED);
+			record.setResponseStatus(invocation.getArgument(1));
+			record.setContentType(invocation.getArgument(2));
+			record.setResponseBody(invocation.getArgument(3));
+			record.setLockedUntil(null);
+			return 1;
+		});
+		when(repository.release(anyString())).thenAnswer(invocation -> records.computeIfPresent(invocation.getArgument(0),
+				(key, record) -> IdempotencyRecord.IN_PROGRESS.equals(record.getState()) ? null : record) == null ? 1 : 0);
+		when(repository.findById(anyString()))
+				.thenAnswer(invocation -> Optional.ofNullable(records.get(invocation.<String>getArgument(0))));
+		return repository;
+	}
+
+	private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+		@Override
+		protected Object doGetTransaction() {
+			return new Object();
+		}
+
+		@Override
+		protected void doBegin(Object transaction, TransactionDefinition definition) {
+		}
+
+		@Override
+		protected void doCommit(DefaultTransactionStatus status) {
+		}
+
+		@Override
+		protected void doRollback(DefaultTransactionStatus status) {
+		}
+	}
+}
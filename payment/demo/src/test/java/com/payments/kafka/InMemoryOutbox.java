@@ -0,0 +1,121 @@
+package com.payments.kafka;
+
+import com.payments.model.OutboxEvent;
+import com.payments.repository.OutboxEventRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * payment_outbox kept in memory, shared by the outbox tests: a mocked {@link OutboxEventRepository}
+ * whose queries are answered from a map, following the SQL they stand in for.
+ */
+final class InMemoryOutbox {
+
+	private final TreeMap<Long, OutboxEvent> rows = new TreeMap<>();
+	private final OutboxEventRepository repository = mock(OutboxEventRepository.class);
+
+	InMemoryOutbox() {
+		when(repository.save(any(OutboxEvent.class))).thenAnswer(invocation -> save(invocation.getArgument(0)));
+		when(repository.findClaimableIds(any(), anyInt()))
+				.thenAnswer(invocation -> claimableIds(invocation.getArgument(0), invocation.getArgument(1)));
+		when(repository.claim(anyCollection(), anyString(), any(), any())).thenAnswer(invocation -> claim(
+				invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3)));
+		when(repository.findByClaimTokenOrderByIdAsc(anyString()))
+				.thenAnswer(invocation -> claimedBy(invocation.getArgument(0)));
+		when(repository.markPublished(anyCollection(), any()))
+				.thenAnswer(invocation -> markPublished(invocation.getArgument(0), invocation.getArgument(1)));
+		when(repository.release(anyCollection(), anyString()))
+				.thenAnswer(invocation -> release(invocation.getArgument(0), invocation.getArgument(1)));
+	}
+
+	OutboxEventRepository repository() {
+		return repository;
+	}
+
+	/** Adds an unpublished row whose payload is {@code payload} as UTF-8. */
+	synchronized OutboxEvent add(String orderId, String payload) {
+		return save(new OutboxEvent("payment-status", orderId, payload.getBytes(StandardCharsets.UTF_8), "binary"));
+	}
+
+	synchronized OutboxEvent get(long id) {
+		return rows.get(id);
+	}
+
+	synchronized List<OutboxEvent> rows() {
+		return new ArrayList<>(rows.values());
+	}
+
+	private synchronized OutboxEvent save(OutboxEvent event) {
+		if (event.getId() == null) {
+			event.setId(rows.isEmpty() ? 1L : rows.lastKey() + 1);
+		}
+		rows.put(event.getId(), event);
+		return event;
+	}
+
+	private synchronized List<Long> claimableIds(LocalDateTime now, int limit) {
+		List<Long> ids = new ArrayList<>();
+		for (OutboxEvent event : rows.values()) {
+			if (ids.size() < limit && event.getPublishedAt() == null
+					&& (event.getClaimedUntil() == null || event.getClaimedUntil().isBefore(now))
+					&& rows.headMap(event.getId()).values().stream().noneMatch(older ->
+							older.getMessageKey().equals(event.getMessageKey()) && older.getPublishedAt() == null)) {
+				ids.add(event.getId());
+			}
+		}
+		return ids;
+	}
+
+	private synchronized int claim(Collection<Long> ids, String token, LocalDateTime until, LocalDateTime now) {
+		int claimed = 0;
+		for (Long id : ids) {
+			OutboxEvent event = rows.get(id);
+			if (event.getPublishedAt() == null && (event.getClaimedUntil() == null || event.getClaimedUntil().isBefore(now))) {
+				event.setClaimToken(token);
+				event.setClaimedUntil(until);
+				claimed++;
+			}
+		}
+		return claimed;
+	}
+
+	private synchronized List<OutboxEvent> claimedBy(String token) {
+		return rows.values().stream().filter(event -> token.equals(event.getClaimToken())).toList();
+	}
+
+	private synchronized int markPublished(Collection<Long> ids, LocalDateTime publishedAt) {
+		for (Long id : ids) {
+			OutboxEvent event = rows.get(id);
+			event.setPublishedAt(publishedAt);
+			event.setClaimToken(null);
+			event.setClaimedUntil(null);
+		}
+		return ids.size();
+	}
+
+	private synchronized int release(Collection<Long> ids, String token) {
+		int released = 0;
+		for (Long id : ids) {
+			OutboxEvent event = rows.get(id);
+			if (token.equals(event.getClaimToken())) {
+				event.setAttempts(event.getAttempts() + 1);
+				event.setClaimToken(null);
+				event.setClaimedUntil(null);
+				released++;
+			}
+		}
+		return released;
+	}
+}
@@ -0,0 +1,177 @@
+package com.payments.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payments.config.OutboxProperties;
+import com.payments.config.PublisherProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaymentOutboxRelayTests {
+
+	private final InMemoryOutbox outbox = new InMemoryOutbox();
+	private final List<String> sent = new ArrayList<>();
+	private final Map<String, CompletableFuture<SendResult<String, byte[]>>> acks = new HashMap<>();
+	private final OutboxProperties properties = new OutboxProperties();
+	private Function<String, CompletableFuture<SendResult<String, byte[]>>> broker;
+	private PaymentStatusPublisher publisher;
+	private PaymentOutboxRelay relay;
+
+	@BeforeEach
+	void setUp() {
+		broker = payload -> CompletableFuture.completedFuture(null);
+		KafkaTemplate<String, byte[]> kafkaTemplate = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(Map.of())) {
+			@Override
+			public CompletableFuture<SendResult<String, byte[]>> send(ProducerRecord<String, byte[]> record) {
+				String payload = new String(record.value(), StandardCharsets.UTF_8);
+				sent.add(payload);
+				CompletableFuture<SendResult<String, byte[]>> ack = broker.apply(payload);
+				acks.put(payload, ack);
+				return ack;
+			}
+		};
+		publisher = new PaymentStatusPublisher(kafkaTemplate, new ObjectMapper(), null,
+				new PublisherProperties(), new SimpleMeterRegistry(), Tracer.NOOP, Propagator.NOOP, "payment-status", "binary");
+		relay = relay(properties);
+	}
+
+	@Test
+	void sendsAnOrdersNextEventOnlyOnceThePreviousOneIsPublished() {
+		outbox.add("ORD-1", "ORD-1:SUCCESS");
+		outbox.add("ORD-2", "ORD-2:SUCCESS");
+		outbox.add("ORD-1", "ORD-1:REFUNDED");
+
+		assertEquals(2, relay.relayBatch());
+		assertEquals(List.of("ORD-1:SUCCESS", "ORD-2:SUCCESS"), sent);
+		assertNull(outbox.get(3).getClaimToken());
+
+		assertEquals(1, relay.relayBatch());
+		assertEquals(List.of("ORD-1:SUCCESS", "ORD-2:SUCCESS", "ORD-1:REFUNDED"), sent);
+		outbox.rows().forEach(event -> assertNotNull(event.getPublishedAt()));
+	}
+
+	@Test
+	void anotherRelayDoesNotClaimAnOrdersLaterEventWhileAnEarlierOneIsInFlight() {
+		OutboxProperties oneAtATime = new OutboxProperties();
+		oneAtATime.setBatchSize(1);
+		PaymentOutboxRelay first = relay(oneAtATime);
+		outbox.add("ORD-1", "ORD-1:SUCCESS");
+		outbox.add("ORD-2", "ORD-2:SUCCESS");
+		outbox.add("ORD-1", "ORD-1:REFUNDED");
+		int[] publishedBySecond = new int[1];
+		broker = payload -> {
+			if (payload.equals("ORD-1:SUCCESS")) {
+				// the second instance polls while the first is still sending
+				publishedBySecond[0] = relay.relayBatch();
+			}
+			return CompletableFuture.completedFuture(null);
+		};
+
+		assertEquals(1, first.relayBatch());
+
+		assertEquals(1, publishedBySecond[0]);
+		assertEquals(List.of("ORD-1:SUCCESS", "ORD-2:SUCCESS"), sent);
+		assertNull(outbox.get(3).getPublishedAt());
+		assertEquals(1, relay.relayBatch());
+		assertEquals("ORD-1:REFUNDED", sent.get(2));
+	}
+
+	@Test
+	void holdsBackAnOrdersLaterEventsAfterAFailedSend() {
+		outbox.add("ORD-1", "ORD-1:SUCCESS");
+		outbox.add("ORD-2", "ORD-2:SUCCESS");
+		outbox.add("ORD-1", "ORD-1:REFUNDED");
+		broker = payload -> payload.equals("ORD-1:SUCCESS")
+				? CompletableFuture.failedFuture(new IllegalStateException("broker unavailable"))
+				: CompletableFuture.completedFuture(null);
+
+		assertEquals(1, relay.relayBatch());
+
+		assertEquals(List.of("ORD-1:SUCCESS", "ORD-2:SUCCESS"), sent);
+		assertNotNull(outbox.get(2).getPublishedAt());
+		assertNull(outbox.get(1).getPublishedAt());
+		assertNull(outbox.get(1).getClaimToken());
+		assertEquals(1, outbox.get(1).getAttempts());
+
+		broker = payload -> CompletableFuture.completedFuture(null);
+		sent.clear();
+		PaymentOutboxRelay other = relay(properties);
+		assertEquals(1, other.relayBatch());
+		assertEquals(1, other.relayBatch());
+		assertEquals(List.of("ORD-1:SUCCESS", "ORD-1:REFUNDED"), sent);
+	}
+
+	@Test
+	void keepsTheLeaseOfASendStillInFlightAtTheTimeoutAndSettlesItWhenItCompletes() throws InterruptedException {
+		properties.setSendTimeout(Duration.ofMillis(50));
+		outbox.add("ORD-1", "ORD-1:SUCCESS");
+		outbox.add("ORD-1", "ORD-1:REFUNDED");
+		broker = payload -> new CompletableFuture<>();
+
+		assertEquals(0, relay.relayBatch());
+
+		assertNotNull(outbox.get(1).getClaimToken());
+		assertEquals(0, outbox.get(1).getAttempts());
+		assertEquals(0, relay.relayBatch());
+		assertEquals(List.of("ORD-1:SUCCESS"), sent);
+
+		acks.get("ORD-1:SUCCESS").complete(null);
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (outbox.get(1).getPublishedAt() == null && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		assertNotNull(outbox.get(1).getPublishedAt());
+
+		broker = payload -> CompletableFuture.completedFuture(null);
+		assertEquals(1, relay.relayBatch());
+		assertEquals(List.of("ORD-1:SUCCESS", "ORD-1:REFUNDED"), sent);
+	}
+
+	@Test
+	void leavesEventsClaimedByAnotherRelayUntilTheirLeaseExpires() {
+		outbox.add("ORD-1", "ORD-1:SUCCESS");
+		outbox.get(1).setClaimToken("other-relay");
+		outbox.get(1).setClaimedUntil(LocalDateTime.now().plusSeconds(30));
+
+		assertEquals(0, relay.relayBatch());
+		assertTrue(sent.isEmpty());
+
+		outbox.get(1).setClaimedUntil(LocalDateTime.now().minusSeconds(1));
+		assertEquals(1, relay.relayBatch());
+		assertEquals(List.of("ORD-1:SUCCESS"), sent);
+	}
+
+	private PaymentOutboxRelay relay(OutboxProperties relayProperties) {
+		TransactionTemplate transactionTemplate = new TransactionTemplate() {
+			@Override
+			public <T> T execute(TransactionCallback<T> action) {
+				return action.doInTransaction(null);
+			}
+		};
+		return new PaymentOutboxRelay(outbox.repository(), publisher, relayProperties, transactionTemplate);
+	}
+}
@@ -0,0 +1,105 @@
+package com.payments.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payments.config.PublisherProperties;
+import com.payments.events.PaymentStatusEvent;
+import com.payments.model.OutboxEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelPropagator;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PaymentStatusPublisherTests {
+
+	private final InMemoryOutbox outbox = new InMemoryOutbox();
+	private final AtomicReference<ProducerRecord<String, byte[]>> sent = new AtomicReference<>();
+	private SdkTracerProvider tracerProvider;
+	private Tracer tracer;
+	private PaymentStatusPublisher publisher;
+
+	@BeforeEach
+	void setUp() {
+		tracerProvider = SdkTracerProvider.builder().build();
+		io.opentelemetry.api.trace.Tracer otelTracer = tracerProvider.get("test");
+		tracer = new OtelTracer(otelTracer, new OtelCurrentTraceContext(), event -> { });
+		OtelPropagator propagator = new OtelPropagator(
+				ContextPropagators.create(W3CTraceContextPropagator.getInstance()), otelTracer);
+
+		KafkaTemplate<String, byte[]> kafkaTemplate = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(Map.of())) {
+			@Override
+			public CompletableFuture<SendResult<String, byte[]>> send(ProducerRecord<String, byte[]> record) {
+				sent.set(record);
+				return CompletableFuture.completedFuture(null);
+			}
+		};
+		publisher = new PaymentStatusPublisher(kafkaTemplate, new ObjectMapper(), outbox.repository(), new PublisherProperties(),
+				new SimpleMeterRegistry(), tracer, propagator, "payment-status", "binary");
+	}
+
+	@AfterEach
+	void tearDown() {
+		tracerProvider.close();
+	}
+
+	@Test
+	void sendContinuesTheTraceOfThePublishingRequest() {
+		Span request = tracer.nextSpan().name("verify").start();
+		try (Tracer.SpanInScope ignored = tracer.withSpan(request)) {
+			publisher.publish(event());
+		} finally {
+			request.end();
+		}
+
+		OutboxEvent outboxEvent = outbox.get(1);
+		assertNotNull(outboxEvent.getTraceParent());
+
+		publisher.send(outboxEvent).join();
+
+		String traceParent = header(sent.get(), "traceparent");
+		String traceId = request.context().traceId();
+		assertEquals(traceId, traceParent.split("-")[1]);
+		// the record carries the producer span, a child of the request span
+		assertNotEquals(request.context().spanId(), traceParent.split("-")[2]);
+	}
+
+	@Test
+	void rowsWrittenOutsideATraceAreSentWithoutTraceHeaders() {
+		publisher.publish(event());
+
+		assertNull(outbox.get(1).getTraceParent());
+		publisher.send(outbox.get(1)).join();
+		assertNull(sent.get().headers().lastHeader("traceparent"));
+	}
+
+	private static PaymentStatusEvent event() {
+		return new PaymentStatusEvent("ORD1", "pay_1", "order_1", "SUCCESS", "ok", 1700000000000L);
+	}
+
+	private static String header(ProducerRecord<String, byte[]> record, String key) {
+		Header header = record.headers().lastHeader(key);
+		return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+	}
+}
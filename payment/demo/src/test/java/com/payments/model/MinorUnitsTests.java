@@ -0,0 +1,24 @@
+package com.payments.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MinorUnitsTests {
+
+	@Test
+	void roundsHalfUpFromTheDecimalForm() {
+		// 1.005 * 100 is 100.49999999999999 in binary floating point
+		assertEquals(101L, MinorUnits.fromMajor(1.005));
+		assertEquals(49900L, MinorUnits.fromMajor(499.0));
+		assertEquals(1999L, MinorUnits.fromMajor(19.99));
+	}
+
+	@Test
+	void convertsBackToMajorUnits() {
+		assertEquals(19.99, MinorUnits.toMajor(1999L));
+		assertNull(MinorUnits.toMajor(null));
+		assertNull(MinorUnits.fromMajor(null));
+	}
+}
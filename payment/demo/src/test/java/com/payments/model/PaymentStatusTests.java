@@ -0,0 +1,41 @@
+package com.payments.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaymentStatusTests {
+
+	@Test
+	void successIsNeverOverwrittenByALateFailure() {
+		assertTrue(PaymentStatus.FAILED.canTransitionTo(PaymentStatus.SUCCESS));
+		assertFalse(PaymentStatus.SUCCESS.canTransitionTo(PaymentStatus.FAILED));
+		assertFalse(PaymentStatus.FAILED.allowedFrom().contains(PaymentStatus.SUCCESS));
+	}
+
+	@Test
+	void refundsGoThroughRefundPending() {
+		assertEquals(EnumSet.of(PaymentStatus.SUCCESS), PaymentStatus.REFUND_PENDING.allowedFrom());
+		assertEquals(EnumSet.of(PaymentStatus.REFUND_PENDING), PaymentStatus.REFUNDED.allowedFrom());
+	}
+
+	@Test
+	void allowedFromIsTheInverseOfTheTransitionTable() {
+		for (PaymentStatus from : PaymentStatus.values()) {
+			for (PaymentStatus to : PaymentStatus.values()) {
+				assertEquals(from.canTransitionTo(to), to.allowedFrom().contains(from), from + " -> " + to);
+			}
+		}
+	}
+
+	@Test
+	void labelsMatchTheStoredStrings() {
+		assertEquals(PaymentStatus.SUCCESS, PaymentStatus.fromLabel("Success"));
+		assertEquals(PaymentStatus.PENDING, PaymentStatus.fromLabel("pending"));
+		assertEquals("REFUND_FAILED", PaymentStatus.REFUND_FAILED.getLabel());
+	}
+}
@@ -0,0 +1,82 @@
+package com.payments.razorpay;
+
+import com.payments.config.RazorpayProperties;
+import com.razorpay.RazorpayException;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpRazorpayGatewayTests {
+
+	private HttpServer stub;
+	private HttpRazorpayGateway gateway;
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final AtomicReference<String> authorization = new AtomicReference<>();
+	private final AtomicReference<String> requestBody = new AtomicReference<>();
+	private volatile int status = 200;
+	private volatile String responseBody = "{\"id\":\"order_Stub0001\",\"status\":\"created\"}";
+
+	@BeforeEach
+	void startStub() throws IOException {
+		stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		stub.createContext("/v1/orders", exchange -> {
+			authorization.set(exchange.getRequestHeaders().getFirst("Authorization"));
+			requestBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+			byte[] bytes = responseBody.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(status, bytes.length);
+			exchange.getResponseBody().write(bytes);
+			exchange.close();
+		});
+		stub.start();
+
+		RazorpayProperties properties = new RazorpayProperties();
+		properties.setKeyId("rzp_test_key");
+		properties.setKeySecret("secret");
+		properties.setBaseUrl("http://127.0.0.1:" + stub.getAddress().getPort() + "/v1");
+		gateway = new HttpRazorpayGateway(properties, meterRegistry, ObservationRegistry.NOOP);
+	}
+
+	@AfterEach
+	void stopStub() throws IOException {
+		gateway.destroy();
+		stub.stop(0);
+	}
+
+	@Test
+	void createsOrderWithBasicAuth() throws Exception {
+		assertEquals("order_Stub0001", gateway.createOrder(49900, "INR", "ORD1"));
+		assertEquals("order_Stub0001", gateway.createOrder(49900, "INR", "ORD1"));
+
+		String expectedAuth = "Basic " + Base64.getEncoder().encodeToString("rzp_test_key:secret".getBytes(StandardCharsets.UTF_8));
+		assertEquals(expectedAuth, authorization.get());
+		assertTrue(requestBody.get().contains("\"amount\":49900"));
+		assertTrue(requestBody.get().contains("\"receipt\":\"ORD1\""));
+		assertEquals(2, meterRegistry.get("razorpay.requests")
+				.tags("operation", "create_order", "outcome", "success", "error", "none").timer().count());
+	}
+
+	@Test
+	void mapsGatewayErrorsToRazorpayException() {
+		status = 400;
+		responseBody = "{\"error\":{\"code\":\"BAD_REQUEST_ERROR\",\"description\":\"amount too small\"}}";
+
+		RazorpayException e = assertThrows(RazorpayException.class, () -> gateway.createOrder(1, "INR", "ORD2"));
+		assertEquals("BAD_REQUEST_ERROR:amount too small", e.getMessage());
+		assertEquals(1, meterRegistry.get("razorpay.requests")
+				.tags("outcome", "client_error", "error", "BAD_REQUEST_ERROR").timer().count());
+	}
+}
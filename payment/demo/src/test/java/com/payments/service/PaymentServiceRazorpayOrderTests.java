@@ -0,0 +1,162 @@
+package com.payments.service;
+
+import com.payments.cache.PaymentCache;
+import com.payments.config.RazorpayProperties;
+import com.payments.dto.RazorpayOrderCreateRequest;
+import com.payments.dto.RazorpayOrderCreateResponse;
+import com.payments.model.Payment;
+import com.payments.model.PaymentStatus;
+import com.payments.repository.PaymentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentServiceRazorpayOrderTests {
+
+	private final PaymentRepository paymentRepository = mock(PaymentRepository.class);
+	private final AtomicBoolean inTransaction = new AtomicBoolean();
+	private final AtomicBoolean calledInTransaction = new AtomicBoolean();
+	private final PaymentService paymentService = new PaymentService(paymentRepository, properties(), null, null,
+			(amountInPaise, currency, receipt) -> {
+				calledInTransaction.set(inTransaction.get());
+				return "order_new";
+			},
+			mock(PaymentCache.class), transactionTemplate(), new SimpleMeterRegistry());
+
+	@Test
+	void insertsAPaymentForANewCheckout() throws Exception {
+		when(paymentRepository.findByOrderId("ORD-1")).thenReturn(Optional.empty());
+		when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+		RazorpayOrderCreateResponse response = paymentService.createRazorpayOrder(request());
+
+		assertEquals("order_new", response.getRazorpayOrderId());
+		assertEquals(49_900L, response.getAmount());
+		assertEquals("CREATED", response.getStatus());
+		verify(paymentRepository).save(any(Payment.class));
+	}
+
+	@Test
+	void callsRazorpayOutsideTheTransactionThatRecordsTheOrder() throws Exception {
+		when(paymentRepository.findByOrderId("ORD-1")).thenReturn(Optional.empty());
+		when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> {
+			assertTrue(inTransaction.get());
+			return invocation.getArgument(0);
+		});
+
+		paymentService.createRazorpayOrder(request());
+
+		assertFalse(calledInTransaction.get());
+		verify(paymentRepository).save(any(Payment.class));
+	}
+
+	@Test
+	void movesAFailedPaymentToCreatedWithItsNewOrderInOneUpdate() throws Exception {
+		payment(PaymentStatus.FAILED, null);
+		when(paymentRepository.recordRazorpayOrder(eq(7L), eq(PaymentStatus.CREATED.allowedFrom()),
+				eq(PaymentStatus.CREATED), eq("order_new"), eq(49_900L), eq("UPI"), eq("INR"), any())).thenReturn(1);
+
+		RazorpayOrderCreateResponse response = paymentService.createRazorpayOrder(request());
+
+		assertEquals("order_new", response.getRazorpayOrderId());
+		assertEquals("CREATED", response.getStatus());
+		verify(paymentRepository, never()).save(any());
+	}
+
+	@Test
+	void answersWithTheOrderOfAConcurrentRetryThatMovedThePaymentFirst() throws Exception {
+		payment(PaymentStatus.FAILED, null);
+		when(paymentRepository.recordRazorpayOrder(anyLong(), any(), any(), anyString(), anyLong(), any(), any(), any()))
+				.thenReturn(0);
+		Payment winner = new Payment("ORD-1", 49_900L, "UPI");
+		winner.setRazorpayOrderId("order_winner");
+		winner.setStatus(PaymentStatus.CREATED);
+		when(paymentRepository.findById(7L)).thenReturn(Optional.of(winner));
+
+		RazorpayOrderCreateResponse response = paymentService.createRazorpayOrder(request());
+
+		assertEquals("order_winner", response.getRazorpayOrderId());
+		verify(paymentRepository, never()).save(any());
+	}
+
+	@Test
+	void rejectsARetryThatLostToAConcurrentVerification() {
+		payment(PaymentStatus.FAILED, null);
+		when(paymentRepository.recordRazorpayOrder(anyLong(), any(), any(), anyString(), anyLong(), any(), any(), any()))
+				.thenReturn(0);
+		Payment current = new Payment("ORD-1", 49_900L, "UPI");
+		current.setStatus(PaymentStatus.SUCCESS);
+		when(paymentRepository.findById(7L)).thenReturn(Optional.of(current));
+
+		IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class,
+				() -> paymentService.createRazorpayOrder(request()));
+
+		assertEquals("Payment for order ORD-1 is already Success", thrown.getMessage());
+	}
+
+	@Test
+	void answersWithTheExistingOrderWithoutCreatingAnother() throws Exception {
+		payment(PaymentStatus.CREATED, "order_existing");
+
+		RazorpayOrderCreateResponse response = paymentService.createRazorpayOrder(request());
+
+		assertEquals("order_existing", response.getRazorpayOrderId());
+		verify(paymentRepository, never()).recordRazorpayOrder(anyLong(), any(), any(), anyString(), anyLong(), any(),
+				any(), any());
+		verify(paymentRepository, never()).save(any());
+	}
+
+	private void payment(PaymentStatus status, String razorpayOrderId) {
+		Payment payment = new Payment("ORD-1", 49_900L, "UPI");
+		payment.setPaymentId(7L);
+		payment.setStatus(status);
+		payment.setRazorpayOrderId(razorpayOrderId);
+		when(paymentRepository.findByOrderId("ORD-1")).thenReturn(Optional.of(payment));
+	}
+
+	private static RazorpayOrderCreateRequest request() {
+		RazorpayOrderCreateRequest request = new RazorpayOrderCreateRequest();
+		request.setOrderId("ORD-1");
+		request.setAmount(499.0);
+		request.setPaymentMethod("UPI");
+		return request;
+	}
+
+	private TransactionTemplate transactionTemplate() {
+		return new TransactionTemplate() {
+			@Override
+			public <T> T execute(TransactionCallback<T> action) {
+				inTransaction.set(true);
+				try {
+					return action.doInTransaction(null);
+				} finally {
+					inTransaction.set(false);
+				}
+			}
+		};
+	}
+
+	private static RazorpayProperties properties() {
+		RazorpayProperties properties = new RazorpayProperties();
+		properties.setKeyId("rzp_test_key");
+		properties.setKeySecret("secret");
+		return properties;
+	}
+}
@@ -0,0 +1,104 @@
+package com.payments.service;
+
+import com.payments.cache.PaymentCache;
+import com.payments.events.PaymentStatusEvent;
+import com.payments.kafka.PaymentStatusPublisher;
+import com.payments.model.Payment;
+import com.payments.model.PaymentStatus;
+import com.payments.repository.PaymentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentServiceRefundRequestTests {
+
+	private final PaymentRepository paymentRepository = mock(PaymentRepository.class);
+	private final PaymentStatusPublisher publisher = mock(PaymentStatusPublisher.class);
+	private final PaymentService paymentService = new PaymentService(paymentRepository, null, publisher, null, null,
+			mock(PaymentCache.class), null, new SimpleMeterRegistry());
+
+	@Test
+	void refundsASuccessfulPaymentAndAnswersRefunded() {
+		Payment payment = payment(PaymentStatus.SUCCESS);
+		when(paymentRepository.transition(eq(7L), any(), any(), any())).thenReturn(1);
+
+		paymentService.handleRefundRequest("ORD-1");
+
+		verify(paymentRepository).transition(eq(7L), any(), eq(PaymentStatus.REFUND_PENDING), any());
+		verify(paymentRepository).transition(eq(7L), any(), eq(PaymentStatus.REFUNDED), any());
+		assertEquals(PaymentStatus.REFUNDED, payment.getStatus());
+		assertEquals("REFUNDED", published().getStatus());
+	}
+
+	@Test
+	void answersARepeatedCommandWithTheExistingRefund() {
+		payment(PaymentStatus.REFUNDED);
+
+		paymentService.handleRefundRequest("ORD-1");
+
+		PaymentStatusEvent event = published();
+		assertEquals("REFUNDED", event.getStatus());
+		assertEquals("Payment already refunded", event.getReason());
+		verify(paymentRepository, never()).transition(anyLong(), any(), any(), any());
+	}
+
+	@Test
+	void answersRefundFailedForAPaymentThatCannotBeRefunded() {
+		payment(PaymentStatus.FAILED);
+
+		paymentService.handleRefundRequest("ORD-1");
+
+		PaymentStatusEvent event = published();
+		assertEquals("REFUND_FAILED", event.getStatus());
+		assertEquals("Payment is not refundable in status Failed", event.getReason());
+		verify(paymentRepository, never()).transition(anyLong(), any(), any(), any());
+	}
+
+	@Test
+	void answersRefundFailedWhenThereIsNoPayment() {
+		when(paymentRepository.findByOrderId("ORD-9")).thenReturn(Optional.empty());
+
+		paymentService.handleRefundRequest("ORD-9");
+
+		PaymentStatusEvent event = published();
+		assertEquals("ORD-9", event.getOrderId());
+		assertEquals("REFUND_FAILED", event.getStatus());
+		assertEquals("Payment record not found", event.getReason());
+	}
+
+	@Test
+	void leavesTheAnswerToAConcurrentRefundThatClaimedThePaymentFirst() {
+		payment(PaymentStatus.SUCCESS);
+		when(paymentRepository.transition(eq(7L), any(), any(), any())).thenReturn(0);
+		when(paymentRepository.findById(7L)).thenReturn(Optional.of(new Payment("ORD-1", 10_000L, "razorpay")));
+
+		paymentService.handleRefundRequest("ORD-1");
+
+		verify(publisher, never()).publish(any());
+	}
+
+	private Payment payment(PaymentStatus status) {
+		Payment payment = new Payment("ORD-1", 10_000L, "razorpay");
+		payment.setPaymentId(7L);
+		payment.setStatus(status);
+		when(paymentRepository.findByOrderId("ORD-1")).thenReturn(Optional.of(payment));
+		return payment;
+	}
+
+	private PaymentStatusEvent published() {
+		ArgumentCaptor<PaymentStatusEvent> event = ArgumentCaptor.forClass(PaymentStatusEvent.class);
+		verify(publisher).publish(event.capture());
+		return event.getValue();
+	}
+}
@@ -0,0 +1,71 @@
+package com.payments.service;
+
+import com.payments.config.RazorpayProperties;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RazorpaySignatureVerifierTests {
+
+	private static final String ORDER_ID = "order_Test0001";
+	private static final String PAYMENT_ID = "pay_Test0001";
+
+	@Test
+	void acceptsSignatureComputedWithConfiguredSecret() throws Exception {
+		RazorpaySignatureVerifier verifier = new RazorpaySignatureVerifier(properties("secret-a", null), 2);
+		String signature = referenceSignature("secret-a");
+
+		assertEquals(signature, verifier.sign(ORDER_ID, PAYMENT_ID));
+		assertTrue(verifier.verify(ORDER_ID, PAYMENT_ID, signature));
+		assertTrue(verifier.verify(ORDER_ID, PAYMENT_ID, signature.toUpperCase()));
+		// second call reuses the pooled Mac
+		assertTrue(verifier.verify(ORDER_ID, PAYMENT_ID, signature));
+	}
+
+	@Test
+	void rejectsTamperedOrMalformedSignatures() throws Exception {
+		RazorpaySignatureVerifier verifier = new RazorpaySignatureVerifier(properties("secret-a", null), 2);
+		String signature = referenceSignature("secret-a");
+
+		assertFalse(verifier.verify(ORDER_ID, "pay_Other", signature));
+		assertFalse(verifier.verify(ORDER_ID, PAYMENT_ID, signature.substring(2)));
+		assertFalse(verifier.verify(ORDER_ID, PAYMENT_ID, "zz" + signature.substring(2)));
+		assertFalse(verifier.verify(ORDER_ID, PAYMENT_ID, null));
+	}
+
+	@Test
+	void followsKeyRotation() throws Exception {
+		RazorpayProperties properties = properties("secret-a", null);
+		RazorpaySignatureVerifier verifier = new RazorpaySignatureVerifier(properties, 2);
+		String oldSignature = referenceSignature("secret-a");
+		assertTrue(verifier.verify(ORDER_ID, PAYMENT_ID, oldSignature));
+
+		properties.setKeySecret("secret-b");
+		properties.setPreviousKeySecret("secret-a");
+		assertTrue(verifier.verify(ORDER_ID, PAYMENT_ID, referenceSignature("secret-b")));
+		assertTrue(verifier.verify(ORDER_ID, PAYMENT_ID, oldSignature));
+
+		properties.setPreviousKeySecret(null);
+		assertFalse(verifier.verify(ORDER_ID, PAYMENT_ID, oldSignature));
+	}
+
+	private static RazorpayProperties properties(String secret, String previousSecret) {
+		RazorpayProperties properties = new RazorpayProperties();
+		properties.setKeySecret(secret);
+		properties.setPreviousKeySecret(previousSecret);
+		return properties;
+	}
+
+	private static String referenceSignature(String secret) throws Exception {
+		Mac mac = Mac.getInstance("HmacSHA256");
+		mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+		return HexFormat.of().formatHex(mac.doFinal((ORDER_ID + "|" + PAYMENT_ID).getBytes(StandardCharsets.UTF_8)));
+	}
+}